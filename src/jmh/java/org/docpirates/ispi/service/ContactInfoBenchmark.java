@@ -0,0 +1,53 @@
+package org.docpirates.ispi.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post and profile descriptions through the single-pass detector and through the regex chain it replaced.
+ * Clean text is the common case and the worst for both: every rule has to run to the end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactInfoBenchmark {
+
+    private static final String UK_CLEAN = "Потрібна курсова робота з історії України XX століття, обсяг 30 сторінок, "
+            + "оформлення за вимогами КНУ, список джерел не менше 25 позицій. Термін виконання - два тижні.";
+    private static final String EN_CLEAN = "Looking for help with a statistics assignment: regression analysis "
+            + "of survey data, about 15 pages with charts, APA formatting, due next Friday.";
+    private static final String UK_PHONE = "Потрібна лабораторна з фізики, деталі обговоримо, дзвоніть 050 123 45 67";
+    private static final String EN_KEYWORD = "Essay on climate policy, 2000 words, references in Harvard style, "
+            + "message me on telegram for the details";
+
+    @Param({"uk-clean", "en-clean", "uk-phone", "en-keyword", "uk-long"})
+    private String text;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = switch (text) {
+            case "uk-clean" -> UK_CLEAN;
+            case "en-clean" -> EN_CLEAN;
+            case "uk-phone" -> UK_PHONE;
+            case "en-keyword" -> EN_KEYWORD;
+            case "uk-long" -> (UK_CLEAN + " ").repeat(20);
+            default -> throw new IllegalArgumentException(text);
+        };
+    }
+
+    @Benchmark
+    public boolean singlePass() {
+        return ContactInfoService.containsContactInfo(input);
+    }
+
+    @Benchmark
+    public boolean regexChain() {
+        return LegacyContactInfo.containsContactInfo(input);
+    }
+}
@@ -0,0 +1,37 @@
+package org.docpirates.ispi.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second, the way JwtFilter checks one request: before, extractUsername and validateToken
+ * each rebuilt the key and parser; now the cached parser verifies the token once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = jwtUtil.generateToken("student@test");
+    }
+
+    @Benchmark
+    public String rebuiltParser() {
+        String username = LegacyJwtUtil.extractUsername(token);
+        return LegacyJwtUtil.validateToken(token) ? username : null;
+    }
+
+    @Benchmark
+    public String cachedParser() {
+        return jwtUtil.parse(token).subject();
+    }
+}
@@ -41,7 +41,7 @@ public class DataConfig {
 //            responseGeneratorService.generateResponses(50);
 //            dealGeneratorService.generateDeals(20);
 //            complaintGeneratorService.generateComplaints(20);
-//            documentIndexService.indexDocuments(documentIndexService.readDocumentsFromDirectory(Path.of("src/main/java/org/docpirates/ispi/service/user_data/test_files")));
+//            documentIndexService.indexDirectory(Path.of("src/main/java/org/docpirates/ispi/service/user_data/test_files"));
             System.out.println("Running after startup...");
         };
     }
@@ -11,6 +11,8 @@ import org.docpirates.ispi.repository.UserRepository;
 import org.docpirates.ispi.service.ContactInfoService;
 import org.docpirates.ispi.service.DatabaseAuthenticationManager;
 import org.docpirates.ispi.service.JwtUtil;
+import org.docpirates.ispi.service.UserCache;
+import org.docpirates.ispi.service.VerifiedTokenCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -27,6 +29,8 @@ public class AuthController {
     private final DatabaseAuthenticationManager authManager;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final PasswordEncoder passwordEncoder;
     private final ProfileErrorRepository profileErrorRepository;
 
@@ -113,7 +117,6 @@ public class AuthController {
                     .lastActivationDate(LocalDateTime.now())
                     .bankCardNumber(req.bankCardNumber())
                     .description(req.description())
-                    .rating(0.0f)
                     .build();
         } else {
             return ResponseEntity
@@ -137,7 +140,7 @@ public class AuthController {
         String email;
 
         try {
-            email = jwtUtil.extractUsername(token);
+            email = verifiedTokenCache.verify(token).subject();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
         }
@@ -149,6 +152,8 @@ public class AuthController {
         }
 
         userRepository.delete(user);
+        userCache.invalidate(user.getEmail());
+        verifiedTokenCache.invalidateSubject(user.getEmail());
         return ResponseEntity.ok("Account deleted");
     }
 }
@@ -1,20 +1,25 @@
 package org.docpirates.ispi.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.docpirates.ispi.dto.DocumentForIndexing;
+import org.docpirates.ispi.dto.CursorPage;
+import org.docpirates.ispi.dto.DocumentDto;
+import org.docpirates.ispi.dto.DocumentSearchHit;
+import org.docpirates.ispi.dto.KeysetCursor;
 import org.docpirates.ispi.entity.Document;
 import org.docpirates.ispi.entity.ForbiddenDocument;
 import org.docpirates.ispi.entity.User;
 import org.docpirates.ispi.repository.DocumentRepository;
 import org.docpirates.ispi.repository.ForbiddenDocumentRepository;
 import org.docpirates.ispi.repository.UserRepository;
+import org.docpirates.ispi.service.DocumentFingerprintIndex;
 import org.docpirates.ispi.service.DocumentIndexService;
-import org.docpirates.ispi.service.DocumentSpecification;
-import org.docpirates.ispi.service.TextReader;
+import org.docpirates.ispi.service.ForbiddenDocumentIndex;
+import org.docpirates.ispi.service.MinHash;
+import org.docpirates.ispi.service.TermExtractor;
+import org.docpirates.ispi.service.TextExtractionCache;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -38,6 +43,9 @@ import java.util.Set;
 public class DocumentController {
 
     private final DocumentIndexService documentIndexService;
+    private final DocumentFingerprintIndex documentFingerprintIndex;
+    private final ForbiddenDocumentIndex forbiddenDocumentIndex;
+    private final TextExtractionCache textExtractionCache;
     private final DocumentRepository documentRepository;
     private final ForbiddenDocumentRepository forbiddenDocumentRepository;
     private final UserMeController userMeController;
@@ -51,56 +59,66 @@ public class DocumentController {
             @RequestParam(required = false) String subjectArea,
             @RequestParam(required = false) String extension,
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "20") int limit
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
     ) {
         if (offset < 0 || limit <= 0 || offset > 100_000 || offset > limit)
             return ResponseEntity.badRequest().body(List.of());
-        Specification<Document> spec = null;
-
-        if (workType != null)
-            spec = (spec == null)
-                    ? DocumentSpecification.hasWorkType(workType)
-                    : spec.and(DocumentSpecification.hasWorkType(workType));
-
-        if (subjectArea != null)
-            spec = (spec == null)
-                    ? DocumentSpecification.hasSubjectArea(subjectArea)
-                    : spec.and(DocumentSpecification.hasSubjectArea(subjectArea));
-
-        if (extension != null)
-            spec = (spec == null)
-                    ? DocumentSpecification.hasExtension(extension)
-                    : spec.and(DocumentSpecification.hasExtension(extension));
-
-        Pageable pageable = PageRequest.of(offset / limit, limit, Sort.by(Sort.Direction.DESC, "uploadedAt"));
-        List<Document> documents = documentRepository.findAll(spec, pageable).getContent();
-        return ResponseEntity.ok(documents);
+
+        List<Document> documents;
+        if (cursor != null) {
+            KeysetCursor before;
+            try {
+                before = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(List.of());
+            }
+            documents = documentRepository.findFilteredBefore(workType, subjectArea, extension,
+                    before.timestamp(), before.id(), Limit.of(limit));
+        } else {
+            documents = documentRepository.findFiltered(workType, subjectArea, extension,
+                    PageRequest.of(offset / limit, limit));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (documents.size() == limit) {
+            Document last = documents.get(documents.size() - 1);
+            headers.set("X-Next-Cursor", new KeysetCursor(last.getUploadedAt(), last.getId()).encode());
+        }
+        return ResponseEntity.ok().headers(headers).body(documents);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<DocumentForIndexing>> searchDocuments(
+    public ResponseEntity<List<DocumentSearchHit>> searchDocuments(
             @RequestParam String request,
             @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int to) {
+            @RequestParam(defaultValue = "10") int to,
+            @RequestParam(required = false) String cursor) {
         try {
-            List<DocumentForIndexing> results = documentIndexService.searchRelevantDocuments(request, from, to);
-            if (results.isEmpty())
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            return ResponseEntity.ok(results);
+            CursorPage<DocumentSearchHit> page = documentIndexService.searchRelevantDocuments(request, from, to, cursor);
+            HttpHeaders headers = new HttpHeaders();
+            if (page.total() != null)
+                headers.set("X-Total-Count", String.valueOf(page.total()));
+            if (page.nextCursor() != null)
+                headers.set("X-Next-Cursor", page.nextCursor());
+            if (page.items().isEmpty())
+                return new ResponseEntity<>(headers, HttpStatus.NO_CONTENT);
+            return ResponseEntity.ok().headers(headers).body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(List.of());
         } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @GetMapping("/search/{documentId}")
-    public ResponseEntity<List<Map<String, Object>>> findSimilarDocuments(
-            @PathVariable String documentId) {
+    public ResponseEntity<List<DocumentDto>> findSimilarDocuments(
+            @PathVariable Long documentId) {
         try {
-            Optional<Document> document = documentRepository.findById(Long.parseLong(documentId));
-            if (document.isEmpty())
+            if (!documentRepository.existsById(documentId))
                 return ResponseEntity.notFound().build();
 
-            List<Map<String, Object>> results = documentIndexService.findSimilarToDocumentByTitle(document.get().getName());
+            List<DocumentDto> results = documentIndexService.findSimilarDocuments(documentId);
             return ResponseEntity.ok(results);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
@@ -140,28 +158,17 @@ public class DocumentController {
         try {
             Path path = Path.of(diskPath);
             Files.copy(file.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
-            String content = TextReader.getTextFromFile(diskPath);
+            String content = textExtractionCache.getText(diskPath);
 
-            DocumentForIndexing incoming = new DocumentForIndexing(diskPath, fullFileName, content);
-            List<Document> allDocs = documentRepository.findAll();
-            for (Document existing : allDocs) {
-                String existingContent = TextReader.getTextFromFile(existing.getDiskPath());
-                DocumentForIndexing existingDoc = new DocumentForIndexing(existing.getDiskPath(), existing.getName(), existingContent);
+            Set<String> terms = TermExtractor.extractTerms(content);
+            int[] signature = MinHash.signature(terms);
+            if (documentFingerprintIndex.hasSimilar(signature, terms.size(), 90.0))
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("message", "A similar document already exists in the system."));
 
-                if (documentIndexService.isSimilarityAboveThreshold(incoming, existingDoc, 90.0))
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                            .body(Map.of("message", "A similar document already exists in the system."));
-            }
-
-            List<ForbiddenDocument> allForbiddenDocs = forbiddenDocumentRepository.findAll();
-            for (ForbiddenDocument forbidden : allForbiddenDocs) {
-                String existingContent = TextReader.getTextFromFile(forbidden.getDiskPath());
-                DocumentForIndexing existingDoc = new DocumentForIndexing(forbidden.getDiskPath(), forbidden.getName(), existingContent);
-
-                if (documentIndexService.isSimilarityAboveThreshold(incoming, existingDoc, 50.0))
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                            .body(Map.of("message", "It is prohibited to upload this file."));
-            }
+            if (forbiddenDocumentIndex.hasSimilar(terms, 50.0))
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("message", "It is prohibited to upload this file."));
 
             Document document = Document.builder()
                     .uploadedAt(LocalDateTime.now())
@@ -171,10 +178,13 @@ public class DocumentController {
                     .subjectArea(subjectArea)
                     .diskPath(diskPath)
                     .author(author)
+                    .minHashSignature(MinHash.toBytes(signature))
+                    .termCount(terms.size())
                     .build();
 
             Document saved = documentRepository.save(document);
-            documentIndexService.addDocument(incoming);
+            documentFingerprintIndex.add(saved.getId(), signature, terms.size());
+            documentIndexService.addDocument(saved, content);
             return ResponseEntity.ok(saved);
         } catch (IOException e) {
             e.printStackTrace();
@@ -210,18 +220,13 @@ public class DocumentController {
         try {
             Path path = Path.of(diskPath);
             Files.copy(file.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
-            String content = TextReader.getTextFromFile(diskPath);
-
-            DocumentForIndexing incoming = new DocumentForIndexing(diskPath, fullFileName, content);
-            List<ForbiddenDocument> allDocs = forbiddenDocumentRepository.findAll();
-            for (ForbiddenDocument existing : allDocs) {
-                String existingContent = TextReader.getTextFromFile(existing.getDiskPath());
-                DocumentForIndexing existingDoc = new DocumentForIndexing(existing.getDiskPath(), existing.getName(), existingContent);
+            String content = textExtractionCache.getText(diskPath);
 
-                if (documentIndexService.isSimilarityAboveThreshold(incoming, existingDoc, 80.0))
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                            .body(Map.of("message", "A similar document already exists in the system."));
-            }
+            Set<String> terms = TermExtractor.extractTerms(content);
+            int[] signature = MinHash.signature(terms);
+            if (forbiddenDocumentIndex.hasSimilar(terms, 80.0))
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("message", "A similar document already exists in the system."));
 
             ForbiddenDocument document = ForbiddenDocument.builder()
                     .uploadedAt(LocalDateTime.now())
@@ -231,9 +236,13 @@ public class DocumentController {
                     .subjectArea(subjectArea)
                     .diskPath(diskPath)
                     .author(author)
+                    .minHashSignature(MinHash.toBytes(signature))
+                    .termCount(terms.size())
                     .build();
 
             ForbiddenDocument saved = forbiddenDocumentRepository.save(document);
+            documentFingerprintIndex.add(saved.getId(), signature, terms.size());
+            forbiddenDocumentIndex.add(saved.getId(), terms);
             return ResponseEntity.ok(saved);
         } catch (IOException e) {
             e.printStackTrace();
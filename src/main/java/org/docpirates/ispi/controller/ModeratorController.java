@@ -3,14 +3,15 @@ package org.docpirates.ispi.controller;
 import lombok.RequiredArgsConstructor;
 import org.docpirates.ispi.dto.ComplaintDto;
 import org.docpirates.ispi.dto.DocumentComplaintDto;
+import org.docpirates.ispi.dto.KeysetCursor;
 import org.docpirates.ispi.dto.PostEditDto;
 import org.docpirates.ispi.entity.*;
 import org.docpirates.ispi.enums.ComplaintStatus;
 import org.docpirates.ispi.enums.ContactErrorStatus;
 import org.docpirates.ispi.repository.*;
+import org.docpirates.ispi.service.ContactRescanService;
 import org.docpirates.ispi.service.JwtUtil;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +26,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ModeratorController {
 
+    private static final int MAX_COMPLAINTS_PAGE = 200;
+
     private final ProfileErrorRepository profileErrorRepository;
     private final PostErrorRepository postErrorRepository;
     private final ComplaintRepository complaintRepository;
@@ -34,6 +37,7 @@ public class ModeratorController {
     private final StudentMeController studentMeController;
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
+    private final ContactRescanService contactRescanService;
 
     // ============================== GET ============================== //
 
@@ -55,48 +59,57 @@ public class ModeratorController {
         return ResponseEntity.ok(postErrors);
     }
 
+    @GetMapping("/contact-rescan")
+    public ResponseEntity<?> getContactRescanStatus(@RequestHeader("Authorization") String authHeader) {
+        ResponseEntity<?> authResult = userMeController.authenticateUser(authHeader);
+        if (!authResult.getStatusCode().is2xxSuccessful())
+            return ResponseEntity.status(authResult.getStatusCode()).body(null);
+        if (!(authResult.getBody() instanceof Moderator))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", "Only moderators can view the contact rescan status."));
+        return ResponseEntity.ok(contactRescanService.status());
+    }
+
     @GetMapping("/complaints")
     public ResponseEntity<List<ComplaintDto>> getFilteredComplaints(
             @RequestHeader("Authorization") String authHeader,
             @RequestParam(required = false) Long moderatorId,
             @RequestParam(required = false) ComplaintStatus status,
             @RequestParam(required = false) String plaintiff,
-            @RequestParam(defaultValue = "desc") String sort // "asc" or "desc"
+            @RequestParam(defaultValue = "desc") String sort, // "asc" or "desc"
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor
     ) {
         ResponseEntity<?> authResult = userMeController.authenticateUser(authHeader);
         if (!authResult.getStatusCode().is2xxSuccessful())
             return ResponseEntity.status(authResult.getStatusCode()).body(null);
-        Specification<Complaint> spec = (root, query, cb) -> cb.conjunction();
-
-        if (moderatorId != null)
-            spec = spec.and((root, query, cb) ->
-                    cb.equal(root.get("moderator").get("id"), moderatorId));
-        else
-            spec = spec.and((root, query, cb) ->
-                    cb.isNull(root.get("moderator")));
-
-        if (status != null)
-            spec = spec.and((root, query, cb) ->
-                    cb.equal(cb.upper(root.get("status")), status.name()));
-
-        Sort.Direction direction = sort.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
-        Sort sortByDate = Sort.by(direction, "creationDate");
-
-        List<Complaint> complaints = complaintRepository.findAll(spec, sortByDate);
-        complaints = complaints.stream()
-                .filter(c -> {
-                    if ("student".equalsIgnoreCase(plaintiff)) {
-                        return c.getPlaintiff() instanceof Student;
-                    } else if ("professor".equalsIgnoreCase(plaintiff)) {
-                        return c.getPlaintiff() instanceof Teacher;
-                    }
-                    return true;
-                })
-                .toList();
-        List<ComplaintDto> dtos = complaints.stream()
-                .map(ComplaintDto::toDto)
-                .toList();
-        return ResponseEntity.ok(dtos);
+        if (limit <= 0 || limit > MAX_COMPLAINTS_PAGE)
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+
+        KeysetCursor after = null;
+        if (cursor != null) {
+            try {
+                after = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
+        }
+
+        Class<? extends User> plaintiffType = null;
+        if ("student".equalsIgnoreCase(plaintiff))
+            plaintiffType = Student.class;
+        else if ("professor".equalsIgnoreCase(plaintiff))
+            plaintiffType = Teacher.class;
+
+        List<ComplaintDto> complaints = complaintRepository.findQueuePage(moderatorId,
+                status != null ? status.name() : null, plaintiffType, sort.equalsIgnoreCase("asc"), after, limit);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (complaints.size() == limit) {
+            ComplaintDto last = complaints.get(complaints.size() - 1);
+            headers.set("X-Next-Cursor", new KeysetCursor(last.getCreationDate(), last.getComplaintId()).encode());
+        }
+        return ResponseEntity.ok().headers(headers).body(complaints);
     }
 
     @GetMapping("/document-complaints")
@@ -291,4 +304,21 @@ public class ModeratorController {
         postErrorRepository.delete(postError);
         return ResponseEntity.ok(Map.of("message", "Post error deleted successfully."));
     }
+
+    @PostMapping("/contact-rescan")
+    public ResponseEntity<?> startContactRescan(@RequestHeader("Authorization") String authHeader,
+                                                @RequestParam(defaultValue = "false") boolean restart) {
+        ResponseEntity<?> authResult = userMeController.authenticateUser(authHeader);
+        if (!authResult.getStatusCode().is2xxSuccessful())
+            return ResponseEntity.status(authResult.getStatusCode()).body(null);
+        if (!(authResult.getBody() instanceof Moderator))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", "Only moderators can start a contact rescan."));
+
+        if (!contactRescanService.start(restart))
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Contact rescan is already running."));
+        return ResponseEntity.accepted()
+                .body(Map.of("message", restart ? "Contact rescan restarted." : "Contact rescan started."));
+    }
 }
@@ -1,17 +1,20 @@
 package org.docpirates.ispi.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.dto.CacheStatsDto;
+import org.docpirates.ispi.dto.KeysetCursor;
 import org.docpirates.ispi.dto.PostDto;
 import org.docpirates.ispi.dto.SubscriptionDto;
-import org.docpirates.ispi.entity.Post;
 import org.docpirates.ispi.entity.Subscription;
 import org.docpirates.ispi.repository.PostRepository;
 import org.docpirates.ispi.repository.SubscriptionRepository;
-import org.docpirates.ispi.service.PostSpecification;
+import org.docpirates.ispi.service.SimilarDocumentsCache;
+import org.docpirates.ispi.service.UserCache;
+import org.docpirates.ispi.service.VerifiedTokenCache;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +24,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -29,6 +33,9 @@ public class ServiceController {
 
     private final PostRepository postRepository;
     private final SubscriptionRepository subscriptionRepository;
+    private final SimilarDocumentsCache similarDocumentsCache;
+    private final UserCache userCache;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @GetMapping("/posts")
     public ResponseEntity<List<PostDto>> getOpenPosts(
@@ -39,30 +46,48 @@ public class ServiceController {
             @RequestParam(defaultValue = "date") String sort,
             @RequestParam(defaultValue = "desc") String order,
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "20") int limit
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
     ) {
-        Specification<Post> spec = PostSpecification.isOpen();
-
-        if (university != null)
-            spec = spec.and(PostSpecification.hasUniversity(university));
-        if (subjectArea != null)
-            spec = spec.and(PostSpecification.hasSubjectArea(subjectArea));
-        if (priceMin != null && priceMax != null) {
-            if (priceMin.compareTo(priceMax) > 0)
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-            spec = spec.and(PostSpecification.priceBetween(priceMin, priceMax));
-        }
+        if (priceMin != null && priceMax != null && priceMin.compareTo(priceMax) > 0)
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        boolean priceRange = priceMin != null && priceMax != null;
+        BigDecimal min = priceRange ? priceMin : null;
+        BigDecimal max = priceRange ? priceMax : null;
 
         Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        String sortBy = "price".equalsIgnoreCase(sort) ? "initialPrice" : "creationDate";
-        if (offset > limit)
+        boolean byDate = !"price".equalsIgnoreCase(sort);
+        if (limit <= 0 || offset > limit)
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-        Pageable pageable = PageRequest.of(offset / limit, limit, Sort.by(direction, sortBy));
 
-        return ResponseEntity.ok(postRepository.findAll(spec, pageable)
-                .stream()
-                .map(PostDto::fromEntity)
-                .toList());
+        // The date feed continues from an opaque (creationDate, id) cursor; price sorting still pages by offset.
+        List<PostDto> posts;
+        if (cursor != null) {
+            if (!byDate)
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            KeysetCursor after;
+            try {
+                after = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
+            posts = direction == Sort.Direction.DESC
+                    ? postRepository.findOpenPostsBefore(university, subjectArea, min, max,
+                            after.timestamp(), after.id(), Limit.of(limit))
+                    : postRepository.findOpenPostsAfter(university, subjectArea, min, max,
+                            after.timestamp(), after.id(), Limit.of(limit));
+        } else {
+            Sort pageSort = Sort.by(direction, byDate ? "creationDate" : "initialPrice").and(Sort.by(direction, "id"));
+            posts = postRepository.findOpenPosts(university, subjectArea, min, max,
+                    PageRequest.of(offset / limit, limit, pageSort));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (byDate && posts.size() == limit) {
+            PostDto last = posts.get(posts.size() - 1);
+            headers.set("X-Next-Cursor", new KeysetCursor(last.getCreationDate(), last.getPostId()).encode());
+        }
+        return ResponseEntity.ok().headers(headers).body(posts);
     }
 
     @GetMapping("/subscriptions")
@@ -73,4 +98,13 @@ public class ServiceController {
                 .toList();
         return ResponseEntity.ok(result);
     }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, CacheStatsDto>> getCacheStats() {
+        return ResponseEntity.ok(Map.of(
+                "similarDocuments", similarDocumentsCache.stats(),
+                "users", userCache.stats(),
+                "verifiedTokens", verifiedTokenCache.stats()
+        ));
+    }
 }
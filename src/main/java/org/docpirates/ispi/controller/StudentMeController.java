@@ -9,13 +9,13 @@ import org.docpirates.ispi.enums.PostStatus;
 import org.docpirates.ispi.enums.RespondentType;
 import org.docpirates.ispi.repository.*;
 import org.docpirates.ispi.service.ContactInfoService;
+import org.docpirates.ispi.service.TeacherRatingService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/students/me")
@@ -31,6 +31,7 @@ public class StudentMeController {
     private final ResponseRepository responseRepository;
     private final DealRepository dealRepository;
     private final ComplaintRepository complaintRepository;
+    private final TeacherRatingService teacherRatingService;
 
     // ============================== POST ============================== //
 
@@ -144,8 +145,8 @@ public class StudentMeController {
         if (deal.getStatus() != DealStatus.OPEN)
             return ResponseEntity.badRequest().body("{\"message\": \"The deal is finished.\"}");
 
-        deal.setStudentFeedback(feedbackDto.getFeedback());
-        dealRepository.save(deal);
+        if (!teacherRatingService.leaveFeedback(deal, feedbackDto.getFeedback()))
+            return ResponseEntity.status(409).body("{\"message\": \"The feedback has changed, reload the deal and try again.\"}");
         return ResponseEntity.ok().body("{\"message\": \"The feedback was successfully created.\"}");
     }
 
@@ -260,30 +261,9 @@ public class StudentMeController {
         if (!post.getStudent().getId().equals(user.getId()))
             return ResponseEntity.status(401).body("{\"message\": \"You are not the owner of the post.\"}");
 
-        List<Response> responses = responseRepository.findAllByPostId(postId);
-        if (responses.isEmpty())
+        List<List<ResponseChainDto>> chains = ResponseChainDto.toChains(responseRepository.findChainsByPostId(postId));
+        if (chains.isEmpty())
             return ResponseEntity.status(204).body("{\"message\": \"No responses matching this post id found.\"}");
-
-        Map<Long, Response> prevMap = responses.stream()
-                .filter(r -> r.getPrevResponseId() != null)
-                .collect(Collectors.toMap(Response::getPrevResponseId, r -> r));
-        List<List<ResponseChainDto>> chains = new ArrayList<>();
-        Set<Long> visited = new HashSet<>();
-
-        for (Response r : responses) {
-            if (r.getPrevResponseId() != null) continue;
-
-            List<ResponseChainDto> chain = new ArrayList<>();
-            Response current = r;
-
-            while (current != null && !visited.contains(current.getId())) {
-                chain.add(ResponseChainDto.fromEntity(current));
-                visited.add(current.getId());
-                current = prevMap.get(current.getId());
-            }
-
-            chains.add(chain);
-        }
         return ResponseEntity.ok(chains);
     }
 
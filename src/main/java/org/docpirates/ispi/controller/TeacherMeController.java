@@ -1,31 +1,36 @@
 package org.docpirates.ispi.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.dto.OfferRequestDto;
 import org.docpirates.ispi.dto.ResponseChainDto;
 import org.docpirates.ispi.entity.*;
 import org.docpirates.ispi.enums.RespondentType;
-import org.docpirates.ispi.repository.DealRepository;
 import org.docpirates.ispi.repository.PostRepository;
 import org.docpirates.ispi.repository.ResponseRepository;
 import org.docpirates.ispi.repository.TeacherRepository;
+import org.docpirates.ispi.service.NegotiationService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/teachers/me")
 @RequiredArgsConstructor
 public class TeacherMeController {
 
+    private static final int MAX_BULK_OFFERS = 1000;
+    private static final int MAX_TOP_TEACHERS = 100;
+
     private final TeacherRepository teacherRepository;
-    private final DealRepository dealRepository;
     private final UserMeController userMeController;
     private final ResponseRepository responseRepository;
     private final PostRepository postRepository;
+    private final NegotiationService negotiationService;
 
     // ============================== GET ============================== //
 
@@ -35,15 +40,15 @@ public class TeacherMeController {
         if (teacher == null)
             return ResponseEntity.status(404).body("{\"message\": \"No teacher with specified id found.\"}");
 
-        List<Deal> ratedDeals = dealRepository.findAllByTeacherIdAndStudentFeedbackGreaterThan(teacherId, 0);
-        if (ratedDeals.isEmpty())
-            return ResponseEntity.ok(Map.of("rating", 0.0));
+        double rating = teacher.getRatingCount() == 0 ? 0.0 : (double) teacher.getRatingSum() / teacher.getRatingCount();
+        return ResponseEntity.ok(Map.of("rating", rating));
+    }
 
-        double averageRating = ratedDeals.stream()
-                .mapToDouble(Deal::getStudentFeedback)
-                .average()
-                .orElse(0.0);
-        return ResponseEntity.ok(Map.of("rating", averageRating));
+    @GetMapping("/top")
+    public ResponseEntity<?> getTopTeachers(@RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_TOP_TEACHERS)
+            return ResponseEntity.badRequest().body("{\"message\": \"'limit' must be between 1 and " + MAX_TOP_TEACHERS + ".\"}");
+        return ResponseEntity.ok(teacherRepository.findTopRated(Limit.of(limit)));
     }
 
     @GetMapping("/responses")
@@ -56,41 +61,8 @@ public class TeacherMeController {
         if (!(user instanceof Teacher teacher))
             return ResponseEntity.status(403).body("{\"message\": \"Only teachers can access this endpoint.\"}");
 
-        List<Response> teacherResponses = responseRepository.findAllByRespondentId(teacher.getId());
-        if (teacherResponses.isEmpty())
-            return ResponseEntity.status(204).body("{\"message\": \"No responses for this user found.\"}");
-
-        Set<Long> postIds = teacherResponses.stream()
-                .map(response -> response.getPost().getId())
-                .collect(Collectors.toSet());
-
-        List<Response> allResponsesOnPosts = responseRepository.findAllByPostIdIn(postIds);
-        if (allResponsesOnPosts.isEmpty())
-            return ResponseEntity.status(204).body("{\"message\": \"No responses for this user found.\"}");
-
-        Map<Long, Response> prevMap = allResponsesOnPosts.stream()
-                .filter(r -> r.getPrevResponseId() != null)
-                .collect(Collectors.toMap(Response::getPrevResponseId, r -> r));
-
-        List<List<ResponseChainDto>> chains = new ArrayList<>();
-        Set<Long> visited = new HashSet<>();
-
-        for (Response r : allResponsesOnPosts) {
-            if (r.getPrevResponseId() != null) continue;
-            List<ResponseChainDto> chain = new ArrayList<>();
-            Response current = r;
-            boolean teacherParticipates = false;
-            while (current != null && !visited.contains(current.getId())) {
-                chain.add(ResponseChainDto.fromEntity(current));
-                visited.add(current.getId());
-                if (current.getRespondent().getId().equals(teacher.getId()))
-                    teacherParticipates = true;
-                current = prevMap.get(current.getId());
-            }
-            if (teacherParticipates)
-                chains.add(chain);
-        }
-
+        List<List<ResponseChainDto>> chains =
+                ResponseChainDto.toChains(responseRepository.findChainsByParticipant(teacher.getId()));
         if (chains.isEmpty())
             return ResponseEntity.status(204).body("{\"message\": \"No responses for this user found.\"}");
         return ResponseEntity.ok(chains);
@@ -129,10 +101,35 @@ public class TeacherMeController {
                 .post(post)
                 .build();
 
-        responseRepository.save(response);
+        try {
+            negotiationService.save(response);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body("{\"message\": \"The negotiation has changed, reload it and try again.\"}");
+        }
         return ResponseEntity.ok().body("{\"message\": \"Response successfully created.\"}");
     }
 
+    @PostMapping("/responses")
+    public ResponseEntity<?> createResponses(@RequestHeader("Authorization") String authHeader,
+                                             @RequestBody List<OfferRequestDto> offers) {
+        ResponseEntity<?> authResult = userMeController.authenticateUser(authHeader);
+        if (!authResult.getStatusCode().is2xxSuccessful())
+            return authResult;
+        User user = (User) authResult.getBody();
+
+        if (!(user instanceof Teacher))
+            return ResponseEntity.status(403).body("{\"message\": \"Only teachers can respond to posts.\"}");
+        if (offers == null || offers.isEmpty() || offers.size() > MAX_BULK_OFFERS)
+            return ResponseEntity.badRequest().body("{\"message\": \"Send between 1 and " + MAX_BULK_OFFERS + " offers.\"}");
+        if (offers.stream().anyMatch(o -> o == null || o.getPostId() == null || o.getPrice() == null))
+            return ResponseEntity.badRequest().body("{\"message\": \"Every offer needs a 'postId' and a 'price'.\"}");
+
+        List<Long> missingPosts = negotiationService.openOffers(user.getId(), offers);
+        return ResponseEntity.ok(Map.of(
+                "created", offers.size() - missingPosts.size(),
+                "missingPosts", missingPosts));
+    }
+
     // ============================== DELETE ============================== //
 
     @DeleteMapping("/posts/{postId}/responses")
@@ -150,10 +147,22 @@ public class TeacherMeController {
         if (post == null)
             return ResponseEntity.status(404).body("{\"message\": \"No post with specified id found.\"}");
 
-        List<Response> responses = responseRepository.findAllByPostIdAndRespondentId(postId, user.getId());
-        if (!responses.isEmpty())
-            responseRepository.deleteAll(responses);
+        negotiationService.withdraw(user.getId(), postId);
         return ResponseEntity.ok().body("{\"message\": \"Responses successfully deleted.\"}");
     }
 
+    @DeleteMapping("/responses")
+    public ResponseEntity<?> deleteAllMyResponses(@RequestHeader("Authorization") String authHeader) {
+        ResponseEntity<?> authResult = userMeController.authenticateUser(authHeader);
+        if (!authResult.getStatusCode().is2xxSuccessful())
+            return authResult;
+        User user = (User) authResult.getBody();
+
+        if (!(user instanceof Teacher))
+            return ResponseEntity.status(403).body("{\"message\": \"Only teachers can delete their responses.\"}");
+
+        int posts = negotiationService.withdraw(user.getId(), null);
+        return ResponseEntity.ok(Map.of("message", "Responses successfully deleted.", "posts", posts));
+    }
+
 }
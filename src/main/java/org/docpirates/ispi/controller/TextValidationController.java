@@ -1,16 +1,48 @@
 package org.docpirates.ispi.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.docpirates.ispi.enums.ContactInfoType;
 import org.docpirates.ispi.service.ContactInfoService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/api/text")
 public class TextValidationController {
 
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int CHUNK_SIZE = 64;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService validationPool;
+
+    public TextValidationController(ObjectMapper objectMapper,
+                                    @Qualifier("contactValidationPool") ExecutorService validationPool) {
+        this.objectMapper = objectMapper;
+        this.validationPool = validationPool;
+    }
+
     @PostMapping("/validate-contact")
     public ResponseEntity<ValidationResponse> validateContact(@RequestBody ValidationRequest request) {
         if (request.getText() == null || request.getText().isBlank())
@@ -23,6 +55,106 @@ public class TextValidationController {
         return ResponseEntity.ok(new ValidationResponse(true, "Text is OK"));
     }
 
+    /**
+     * Accepts a JSON array or NDJSON lines, each item a string or {"text": ...}. Results are streamed back
+     * as NDJSON in completion order, so every line carries the index of the text it belongs to.
+     */
+    @PostMapping(path = "/validate-contact/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> validateContactBatch(HttpServletRequest request) {
+        List<String> texts;
+        try {
+            texts = readTexts(request);
+        } catch (IOException | IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Body must be a JSON array or NDJSON of texts.");
+        }
+        if (texts.size() > MAX_BATCH_SIZE)
+            return errorResponse(HttpStatus.PAYLOAD_TOO_LARGE, "At most " + MAX_BATCH_SIZE + " texts per batch.");
+
+        CompletionService<List<BatchValidationResult>> completion = new ExecutorCompletionService<>(validationPool);
+        int chunks = 0;
+        for (int start = 0; start < texts.size(); start += CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(start + CHUNK_SIZE, texts.size());
+            completion.submit(() -> validateRange(texts, from, to));
+            chunks++;
+        }
+
+        int totalChunks = chunks;
+        StreamingResponseBody body = out -> {
+            try {
+                for (int i = 0; i < totalChunks; i++) {
+                    for (BatchValidationResult result : completion.take().get()) {
+                        out.write(objectMapper.writeValueAsBytes(result));
+                        out.write('\n');
+                    }
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Batch validation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Batch validation failed", e.getCause());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private List<String> readTexts(HttpServletRequest request) throws IOException {
+        List<String> texts = new ArrayList<>();
+        String contentType = request.getContentType();
+        if (contentType != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            BufferedReader reader = request.getReader();
+            String line;
+            while ((line = reader.readLine()) != null && texts.size() <= MAX_BATCH_SIZE) {
+                if (line.isBlank()) continue;
+                texts.add(textOf(objectMapper.readTree(line)));
+            }
+            return texts;
+        }
+
+        try (JsonParser parser = objectMapper.createParser(request.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+                throw new IllegalArgumentException("Expected a JSON array");
+            while (parser.nextToken() != JsonToken.END_ARRAY && texts.size() <= MAX_BATCH_SIZE)
+                texts.add(textOf(objectMapper.readTree(parser)));
+        }
+        return texts;
+    }
+
+    private static String textOf(JsonNode item) {
+        if (item.isTextual())
+            return item.asText();
+        if (item.isObject() && item.path("text").isTextual())
+            return item.get("text").asText();
+        if (item.isNull() || item.isObject())
+            return null;
+        throw new IllegalArgumentException("Unsupported batch item: " + item.getNodeType());
+    }
+
+    private static List<BatchValidationResult> validateRange(List<String> texts, int from, int to) {
+        List<BatchValidationResult> results = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            String text = texts.get(i);
+            if (text == null || text.isBlank()) {
+                results.add(new BatchValidationResult(i, false, "EMPTY"));
+                continue;
+            }
+            ContactInfoType match = ContactInfoService.findContactInfo(text);
+            results.add(new BatchValidationResult(i, match == null, match == null ? null : match.name()));
+        }
+        return results;
+    }
+
+    private ResponseEntity<StreamingResponseBody> errorResponse(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(objectMapper.writeValueAsBytes(Map.of("message", message))));
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -37,4 +169,13 @@ public class TextValidationController {
         private boolean valid;
         private String message;
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchValidationResult {
+        private int index;
+        private boolean valid;
+        private String reason;
+    }
 }
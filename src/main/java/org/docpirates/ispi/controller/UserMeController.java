@@ -7,8 +7,14 @@ import org.docpirates.ispi.enums.ContactErrorStatus;
 import org.docpirates.ispi.enums.RespondentType;
 import org.docpirates.ispi.repository.*;
 import org.docpirates.ispi.service.ContactInfoService;
-import org.docpirates.ispi.service.JwtUtil;
+import org.docpirates.ispi.service.JwtFilter;
+import org.docpirates.ispi.service.NegotiationService;
 import org.docpirates.ispi.service.SubscriptionService;
+import org.docpirates.ispi.service.TeacherRatingService;
+import org.docpirates.ispi.service.UserCache;
+import org.docpirates.ispi.service.VerifiedTokenCache;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -17,23 +23,24 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users/me")
 @RequiredArgsConstructor
 public class UserMeController {
 
-    private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final SubscriptionService subscriptionService;
     private final SubscriptionRepository subscriptionRepository;
     private final DocumentRepository documentRepository;
@@ -42,6 +49,9 @@ public class UserMeController {
     private final PostRepository postRepository;
     private final ComplaintRepository complaintRepository;
     private final ResponseRepository responseRepository;
+    private final NegotiationThreadRepository negotiationThreadRepository;
+    private final NegotiationService negotiationService;
+    private final TeacherRatingService teacherRatingService;
     private final DocumentFeedbackRepository documentFeedbackRepository;
     private final DocumentComplaintRepository documentComplaintRepository;
     private final UserDownloadsRepository userDownloadsRepository;
@@ -52,18 +62,26 @@ public class UserMeController {
         if (authHeader == null || !authHeader.startsWith("Bearer "))
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing token");
         String token = authHeader.substring(7);
+        User resolved = JwtFilter.authenticatedUser(token);
+        if (resolved != null)
+            return ResponseEntity.ok(resolved);
         String email;
         try {
-            email = jwtUtil.extractUsername(token);
+            email = verifiedTokenCache.verify(token).subject();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
         }
-        User user = userRepository.findByEmail(email).orElse(null);
+        User user = userCache.findByEmail(email);
         if (user == null)
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         return ResponseEntity.ok(user);
     }
 
+    // The authenticated user may be the instance shared through UserCache, which must not be modified.
+    private User reload(User user) {
+        return userRepository.findById(user.getId()).orElseThrow();
+    }
+
     // ============================== GET ============================== //
 
     @GetMapping("/profile")
@@ -144,7 +162,8 @@ public class UserMeController {
     @GetMapping("/documents/{documentId}")
     public ResponseEntity<?> downloadDocument(
             @PathVariable Long documentId,
-            @RequestHeader("Authorization") String authHeader
+            @RequestHeader("Authorization") String authHeader,
+            WebRequest webRequest
     ) {
         ResponseEntity<?> authResult = authenticateUser(authHeader);
         if (!authResult.getStatusCode().is2xxSuccessful())
@@ -160,9 +179,14 @@ public class UserMeController {
                     .body(Map.of("message", "You are not allowed to download documents."));
         }
 
+        // Repeated requests for a document already downloaded within the day (resumes, retries) are not counted again.
+        LocalDateTime dayAgo = LocalDateTime.now().minusDays(1);
+        boolean downloadedToday = userDownloadsRepository
+                .existsByUserAndDocumentIdAndDownloadedAtAfter(user, documentId, dayAgo);
+
         Optional<Subscription> patron = subscriptionRepository.findByNameIgnoreCase("patron");
-        if (patron.isPresent() && Objects.equals(sub.getId(), patron.get().getId())) {
-            int numOfDownloads = userDownloadsRepository.countDownloadsSince(user, LocalDateTime.now().minusDays(1));
+        if (!downloadedToday && patron.isPresent() && Objects.equals(sub.getId(), patron.get().getId())) {
+            int numOfDownloads = userDownloadsRepository.countDownloadsSince(user, dayAgo);
             if (numOfDownloads >= 10)
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "You have reached the limit of 10 documents per day for patron subscription."));
@@ -174,26 +198,37 @@ public class UserMeController {
                     .body(Map.of("message", "No document with specified id found."));
 
         Document doc = optionalDoc.get();
-        File file = new File(doc.getDiskPath());
-        if (!file.exists())
+        Path file = Path.of(doc.getDiskPath());
+        if (!Files.isRegularFile(file))
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("message", "File not found on server."));
 
         try {
-            byte[] fileBytes = Files.readAllBytes(file.toPath());
+            long size = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            String eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            if (webRequest.checkNotModified(eTag, lastModified))
+                return null;
+
             String mimeType = DocumentDto.from(doc).content_type();
             String fileName = doc.getName() + "." + doc.getExtension();
 
-            UserDownloads download = UserDownloads.builder()
-                    .user(user)
-                    .document(doc)
-                    .build();
-            userDownloadsRepository.save(download);
+            if (!downloadedToday) {
+                UserDownloads download = UserDownloads.builder()
+                        .user(user)
+                        .document(doc)
+                        .downloadedAt(LocalDateTime.now())
+                        .build();
+                userDownloadsRepository.save(download);
+            }
 
+            // Spring answers Range requests for Resource bodies with 206 and copies through a fixed buffer.
             return ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(mimeType))
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                    .body(fileBytes);
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .body(new FileSystemResource(file));
 
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -290,26 +325,12 @@ public class UserMeController {
             return authResult;
         User user = (User) authResult.getBody();
 
-        Optional<Post> postOpt = postRepository.findById(postId);
-        if (postOpt.isEmpty())
+        if (!postRepository.existsById(postId))
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No teacher/post with specified id found."));
 
-        Optional<Response> responseOpt = responseRepository.findNewestStudentResponseByPostIdAndTeacherResponse(postId, teacherId, RespondentType.STUDENT);
-        if (responseOpt.isEmpty())
-            return ResponseEntity.noContent().build();
-
-        Response response = responseOpt.get();
-
-        if (!response.getRespondent().getId().equals(user.getId()))
-            return ResponseEntity.noContent().build();
-
-        LastStudentResponseDto dto = LastStudentResponseDto.builder()
-                .response_id(response.getId())
-                .price(response.getPrice())
-                .creation_date(response.getCreationDate())
-                .build();
-
-        return ResponseEntity.ok(dto);
+        return negotiationThreadRepository.findLastStudentResponse(postId, teacherId, user.getId())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
     }
 
     @GetMapping("/posts/{postId}/last-teacher-response/{teacherId}")
@@ -322,23 +343,13 @@ public class UserMeController {
         if (!authResult.getStatusCode().is2xxSuccessful())
             return authResult;
 
-        Optional<Post> postOpt = postRepository.findById(postId);
-        if (postOpt.isEmpty())
+        if (!postRepository.existsById(postId))
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("message", "No teacher/post with specified id found."));
 
-        Optional<Response> responseOpt = responseRepository.findTopByPostIdAndRespondentIdOrderByCreationDateDesc(postId, teacherId);
-        if (responseOpt.isEmpty())
-            return ResponseEntity.noContent().build();
-
-        Response response = responseOpt.get();
-
-        LastTeacherResponseDto dto = LastTeacherResponseDto.builder()
-                .response_id(response.getId())
-                .price(response.getPrice())
-                .creation_date(response.getCreationDate())
-                .build();
-        return ResponseEntity.ok(dto);
+        return negotiationThreadRepository.findLastTeacherResponse(postId, teacherId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
     }
 
     // ============================== DELETE ============================== //
@@ -368,10 +379,11 @@ public class UserMeController {
         if (!authResult.getStatusCode().is2xxSuccessful())
             return authResult;
 
-        User user = (User) authResult.getBody();
+        User user = reload((User) authResult.getBody());
         user.setSubscription(null);
         user.setLastActivationDate(null);
         userRepository.save(user);
+        userCache.invalidate(user.getEmail());
         return ResponseEntity.ok(Map.of("message", "Subscription was successfully deleted."));
     }
 
@@ -395,10 +407,10 @@ public class UserMeController {
         if (!isModerator && deal != null)
             return ResponseEntity.status(400).body("{\"message\": \"Post is already involved in a deal and cannot be deleted.\"}");
 
-        responseRepository.deleteAllByPostId(postId);
+        negotiationService.deleteAllByPostId(postId);
         if (isModerator && deal != null) {
             complaintRepository.deleteAllByDealId(deal.getId());
-            dealRepository.delete(deal);
+            teacherRatingService.deleteDeal(deal);
         }
         postRepository.delete(post);
         return ResponseEntity.ok("{\"message\": \"Post was successfully deleted.\"}");
@@ -438,7 +450,7 @@ public class UserMeController {
         ResponseEntity<?> authResult = authenticateUser(authHeader);
         if (!authResult.getStatusCode().is2xxSuccessful())
             return authResult;
-        User user = (User) authResult.getBody();
+        User user = reload((User) authResult.getBody());
 
         Subscription subscription = subscriptionRepository.findById(subscriptionId).orElse(null);
         if (subscription == null)
@@ -447,6 +459,7 @@ public class UserMeController {
         user.setSubscription(subscription);
         user.setLastActivationDate(LocalDateTime.now());
         userRepository.save(user);
+        userCache.invalidate(user.getEmail());
         return ResponseEntity.ok(Map.of("message", "The subscription was successfully completed."));
     }
 
@@ -524,50 +537,22 @@ public class UserMeController {
         if (baseResponse == null)
             return ResponseEntity.status(404).body(Map.of("message", "No response with specified id found."));
 
-        Post post = baseResponse.getPost();
-        List<Response> responses = responseRepository.findAllByPostId(post.getId());
-        Map<Long, Response> responseMap = responses.stream()
-                .collect(Collectors.toMap(Response::getId, r -> r));
-
-        List<Response> chain = new ArrayList<>();
-        Response current = baseResponse;
-        while (current != null) {
-            chain.add(0, current);
-            current = responseMap.get(current.getPrevResponseId());
-        }
-        Response allowedTarget = null;
-
-        if (user instanceof Teacher) {
-            List<Response> candidates = chain.stream()
-                    .filter(r -> r.getRespondent().getId().equals(user.getId())
-                                 || r.getRespondent() instanceof Student)
-                    .sorted(Comparator.comparing(Response::getCreationDate).reversed())
-                    .toList();
-            allowedTarget = candidates.isEmpty() ? null : candidates.get(0);
-        } else if (user instanceof Student) {
-            List<Response> candidates = chain.stream()
-                    .filter(r -> r.getRespondent().getId().equals(user.getId())
-                                 || r.getRespondent() instanceof Teacher)
-                    .sorted(Comparator.comparing(Response::getCreationDate).reversed())
-                    .toList();
-            allowedTarget = candidates.isEmpty() ? null : candidates.get(0);
-        } else {
+        RespondentType respondentType;
+        if (user instanceof Teacher)
+            respondentType = RespondentType.TEACHER;
+        else if (user instanceof Student)
+            respondentType = RespondentType.STUDENT;
+        else
             return ResponseEntity.status(401).body(Map.of("message", "Only students and teachers can respond."));
-        }
 
-        if (!allowedTarget.getId().equals(responseId))
+        Response newResponse;
+        try {
+            newResponse = negotiationService.respond(baseResponse, user, respondentType, price);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(Map.of("message", "The chain has changed, reload it and try again."));
+        }
+        if (newResponse == null)
             return ResponseEntity.status(400).body(Map.of("message", "You can only respond to the latest allowed response in the chain."));
-
-        Response newResponse = Response.builder()
-                .creationDate(LocalDateTime.now())
-                .price(price)
-                .respondent(user)
-                .respondentType(user instanceof Teacher ? RespondentType.TEACHER : RespondentType.STUDENT)
-                .post(post)
-                .prevResponseId(allowedTarget.getId())
-                .build();
-
-        responseRepository.save(newResponse);
         return ResponseEntity.ok().build();
     }
 
@@ -599,7 +584,7 @@ public class UserMeController {
         ResponseEntity<?> authResult = authenticateUser(authHeader);
         if (!authResult.getStatusCode().is2xxSuccessful())
             return authResult;
-        User user = (User) authResult.getBody();
+        User user = reload((User) authResult.getBody());
 
         Subscription subscription = user.getSubscription();
         if (subscription == null)
@@ -609,6 +594,7 @@ public class UserMeController {
         LocalDate today = LocalDate.now();
         user.setLastActivationDate(LocalDateTime.now());
         userRepository.save(user);
+        userCache.invalidate(user.getEmail());
 
         return ResponseEntity.ok(Map.of(
                 "message", "Subscription activated successfully.",
@@ -627,7 +613,7 @@ public class UserMeController {
         ResponseEntity<?> authResult = authenticateUser(authHeader);
         if (!authResult.getStatusCode().is2xxSuccessful())
             return authResult;
-        User user = (User) authResult.getBody();
+        User user = reload((User) authResult.getBody());
 
         Subscription subscription = subscriptionRepository.findById(subscriptionId).orElse(null);
         if (subscription == null)
@@ -637,6 +623,7 @@ public class UserMeController {
         user.setSubscription(subscription);
         user.setLastActivationDate(LocalDateTime.now());
         userRepository.save(user);
+        userCache.invalidate(user.getEmail());
         return ResponseEntity.ok(Map.of("message", "The subscription was successfully changed."));
     }
 
@@ -654,6 +641,7 @@ public class UserMeController {
         if (targetOpt.isEmpty())
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         User target = targetOpt.get();
+        String previousEmail = target.getEmail();
 
         boolean isModerator = editor instanceof Moderator;
         boolean editingOwnProfile = editor.getId().equals(target.getId());
@@ -732,6 +720,8 @@ public class UserMeController {
             target.setPassword(bCryptPasswordEncoder.encode(request.password().trim()));
 
         userRepository.save(target);
+        userCache.invalidate(previousEmail);
+        userCache.invalidate(target.getEmail());
         return ResponseEntity.ok(Map.of("message", "Profile successfully updated"));
     }
 }
@@ -0,0 +1,23 @@
+package org.docpirates.ispi.dto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public record CacheStatsDto(
+        long size,
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions
+) {
+    public static CacheStatsDto from(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
@@ -1,13 +1,14 @@
 package org.docpirates.ispi.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
-import org.docpirates.ispi.entity.*;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class ComplaintDto {
     private Long complaintId;
     private String description;
@@ -24,30 +25,4 @@ public class ComplaintDto {
     private String studentEmail;
     private String teacherEmail;
     private Long plantiffId;
-
-    public static ComplaintDto toDto(Complaint complaint) {
-        Deal deal = complaint.getDeal();
-        Student student = deal.getPost().getStudent();
-        Teacher teacher = deal.getTeacher();
-        User plaintiff = complaint.getPlaintiff();
-
-        return ComplaintDto.builder()
-                .complaintId(complaint.getId())
-                .description(complaint.getDescription())
-                .creationDate(complaint.getCreationDate())
-                .status(complaint.getStatus())
-                .moderator(complaint.getModerator() != null ? complaint.getModerator().getPib() : null)
-                .dealId(deal.getId())
-                .studentId(student.getId())
-                .teacherId(teacher.getId())
-                .studentName(student.getPib())
-                .teacherName(teacher.getPib())
-                .studentPhone(student.getPhoneNumber())
-                .teacherPhone(teacher.getPhoneNumber())
-                .studentEmail(student.getEmail())
-                .teacherEmail(teacher.getEmail())
-                .plantiffId(plaintiff.getId())
-                .build();
-    }
 }
-
@@ -0,0 +1,12 @@
+package org.docpirates.ispi.dto;
+
+import org.docpirates.ispi.entity.ContactRescanProgress;
+
+import java.util.List;
+
+public record ContactRescanStatusDto(
+        boolean running,
+        String currentTarget,
+        double rowsPerSecond,
+        List<ContactRescanProgress> progress
+) {}
@@ -0,0 +1,9 @@
+package org.docpirates.ispi.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> items,
+        Long total,
+        String nextCursor
+) {}
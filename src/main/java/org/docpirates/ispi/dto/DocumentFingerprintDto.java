@@ -0,0 +1,7 @@
+package org.docpirates.ispi.dto;
+
+public record DocumentFingerprintDto(
+        Long documentId,
+        byte[] minHashSignature,
+        Integer termCount
+) {}
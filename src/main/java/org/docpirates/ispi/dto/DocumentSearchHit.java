@@ -0,0 +1,10 @@
+package org.docpirates.ispi.dto;
+
+import java.util.List;
+
+public record DocumentSearchHit(
+        Long id,
+        String filename,
+        Double score,
+        List<String> highlights
+) {}
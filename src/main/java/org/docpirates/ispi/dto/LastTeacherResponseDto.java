@@ -1,5 +1,6 @@
 package org.docpirates.ispi.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class LastTeacherResponseDto {
     private Long response_id;
     private BigDecimal price;
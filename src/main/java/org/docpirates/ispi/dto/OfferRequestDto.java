@@ -0,0 +1,11 @@
+package org.docpirates.ispi.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class OfferRequestDto {
+    private Long postId;
+    private BigDecimal price;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.docpirates.ispi.entity.Post;
+import org.docpirates.ispi.enums.PostStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,6 +26,14 @@ public class PostDto {
     private LocalDateTime creationDate;
     private String status;
 
+    // Used by the constructor expression in PostRepository.findOpenPosts.
+    public PostDto(Long postId, String description, Long studentId, String studentName, String workType,
+                   String subjectArea, String institution, BigDecimal initialPrice, LocalDateTime creationDate,
+                   PostStatus status) {
+        this(postId, description, studentId, studentName, workType, subjectArea, institution,
+                initialPrice, creationDate, status.name());
+    }
+
     public static PostDto fromEntity(Post post) {
         return PostDto.builder()
                 .postId(post.getId())
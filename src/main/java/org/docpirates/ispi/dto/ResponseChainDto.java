@@ -4,11 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.docpirates.ispi.entity.Response;
 import org.docpirates.ispi.enums.RespondentType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -21,15 +24,25 @@ public class ResponseChainDto {
     private Long respondent;
     private RespondentType respondentType;
     private Long prevResponseId;
+    private int depth;
 
-    public static ResponseChainDto fromEntity(Response response) {
+    public static ResponseChainDto from(ResponseChainLink link) {
         return ResponseChainDto.builder()
-                .responseId(response.getId())
-                .price(response.getPrice())
-                .creationDate(response.getCreationDate())
-                .respondent(response.getRespondent().getId())
-                .respondentType(response.getRespondentType())
-                .prevResponseId(response.getPrevResponseId())
+                .responseId(link.getResponseId())
+                .price(link.getPrice())
+                .creationDate(link.getCreationDate())
+                .respondent(link.getRespondent())
+                .respondentType(link.getRespondentType())
+                .prevResponseId(link.getPrevResponseId())
+                .depth(link.getDepth())
                 .build();
     }
+
+    /** Splits rows that are already grouped by chain and ordered by depth into one list per chain. */
+    public static List<List<ResponseChainDto>> toChains(List<ResponseChainLink> links) {
+        Map<Long, List<ResponseChainDto>> chains = new LinkedHashMap<>();
+        for (ResponseChainLink link : links)
+            chains.computeIfAbsent(link.getRootId(), rootId -> new ArrayList<>()).add(from(link));
+        return new ArrayList<>(chains.values());
+    }
 }
@@ -0,0 +1,18 @@
+package org.docpirates.ispi.dto;
+
+import org.docpirates.ispi.enums.RespondentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** One response of a negotiation chain, as returned by the recursive chain queries in ResponseRepository. */
+public interface ResponseChainLink {
+    Long getResponseId();
+    BigDecimal getPrice();
+    LocalDateTime getCreationDate();
+    Long getRespondent();
+    RespondentType getRespondentType();
+    Long getPrevResponseId();
+    Long getRootId();
+    Integer getDepth();
+}
@@ -0,0 +1,3 @@
+package org.docpirates.ispi.dto;
+
+public record TopTeacherDto(Long teacherId, String pib, Float rating, int ratingCount) {}
@@ -9,6 +9,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+// The unassigned queue index is partial (moderator_id IS NULL) and lives in db/migration/V2__hot_query_indexes.sql.
+@Table(indexes = @Index(name = "idx_complaint_moderator_creation_date", columnList = "moderator_id, creation_date, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,27 @@
+package org.docpirates.ispi.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContactRescanProgress {
+    @Id
+    private String target;
+
+    private long lastId;
+    private long scanned;
+    private long flagged;
+    private boolean finished;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+}
@@ -10,6 +10,7 @@ import org.docpirates.ispi.enums.DealStatus;
 import java.math.BigDecimal;
 
 @Entity
+@Table(indexes = @Index(name = "idx_deal_teacher", columnList = "teacher_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
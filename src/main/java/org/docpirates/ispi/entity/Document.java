@@ -1,5 +1,6 @@
 package org.docpirates.ispi.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,6 +11,13 @@ import lombok.experimental.SuperBuilder;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_document_uploaded_at", columnList = "uploaded_at, id"),
+        @Index(name = "idx_document_work_type_uploaded_at", columnList = "work_type, uploaded_at, id"),
+        @Index(name = "idx_document_subject_area_uploaded_at", columnList = "subject_area, uploaded_at, id"),
+        @Index(name = "idx_document_extension_uploaded_at", columnList = "extension, uploaded_at, id"),
+        @Index(name = "idx_document_author_uploaded_at", columnList = "author_id, uploaded_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +34,11 @@ public class Document {
     private String subjectArea;
     private String diskPath;
 
+    @JsonIgnore
+    private byte[] minHashSignature;
+    @JsonIgnore
+    private Integer termCount;
+
     @ManyToOne
     private User author;
 }
@@ -0,0 +1,39 @@
+package org.docpirates.ispi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Current state of one teacher's negotiation on a post, kept in step with its responses by NegotiationService. */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_negotiation_thread_post_teacher", columnNames = {"post_id", "teacher_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NegotiationThread {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Post post;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Teacher teacher;
+
+    private Long headResponseId;
+    private Long lastTeacherResponseId;
+    private Long lastStudentResponseId;
+    private BigDecimal currentPrice;
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+}
@@ -11,6 +11,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+// The open-post feed indexes are partial (status = OPEN) and live in db/migration/V2__hot_query_indexes.sql.
+@Table(indexes = @Index(name = "idx_post_student", columnList = "student_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
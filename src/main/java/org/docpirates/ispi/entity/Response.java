@@ -11,6 +11,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_response_post_respondent", columnList = "post_id, respondent_id, creation_date"),
+        @Index(name = "idx_response_respondent", columnList = "respondent_id"),
+        @Index(name = "idx_response_prev_response", columnList = "prev_response_id"),
+        @Index(name = "idx_response_thread", columnList = "thread_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +29,7 @@ public class Response {
     private LocalDateTime creationDate;
     private BigDecimal price;
     private Long prevResponseId;
+    private Long threadId;
 
     @ManyToOne
     private User respondent;
@@ -1,17 +1,29 @@
 package org.docpirates.ispi.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 @Entity
+@Table(indexes = @Index(name = "idx_teacher_rating", columnList = "rating DESC, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
 public class Teacher extends User{
     private String description;
+
+    // Running totals over deals with feedback; rating is kept equal to ratingSum / ratingCount.
+    // Only TeacherRepository.addFeedback and recalculateRatings write these, never an entity save.
+    @Column(insertable = false, updatable = false)
     private Float rating;
+    @Column(insertable = false, updatable = false)
+    private long ratingSum;
+    @Column(insertable = false, updatable = false)
+    private int ratingCount;
 }
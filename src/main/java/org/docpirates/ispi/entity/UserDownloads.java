@@ -9,6 +9,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Data
 @NoArgsConstructor
@@ -23,4 +25,6 @@ public class UserDownloads {
     @Id
     @ManyToOne
     private Document document;
+
+    private LocalDateTime downloadedAt;
 }
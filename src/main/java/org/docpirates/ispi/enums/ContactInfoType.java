@@ -0,0 +1,5 @@
+package org.docpirates.ispi.enums;
+
+public enum ContactInfoType {
+    KEYWORD, SPECIAL_CHARACTER, URL, DOMAIN, PHONE
+}
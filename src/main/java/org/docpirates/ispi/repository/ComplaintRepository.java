@@ -2,15 +2,11 @@ package org.docpirates.ispi.repository;
 
 import org.docpirates.ispi.entity.Complaint;
 import org.docpirates.ispi.entity.Deal;
-import org.docpirates.ispi.entity.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.util.List;
-import java.util.Optional;
 
-public interface ComplaintRepository extends JpaRepository<Complaint, Long> ,
-        JpaSpecificationExecutor<Complaint> {
+public interface ComplaintRepository extends JpaRepository<Complaint, Long>, ComplaintRepositoryCustom {
     List<Complaint> findByDeal(Deal deal);
     void deleteAllByDealId(Long dealId);
-}
\ No newline at end of file
+}
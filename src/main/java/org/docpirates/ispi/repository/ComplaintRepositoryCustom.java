@@ -0,0 +1,16 @@
+package org.docpirates.ispi.repository;
+
+import org.docpirates.ispi.dto.ComplaintDto;
+import org.docpirates.ispi.dto.KeysetCursor;
+import org.docpirates.ispi.entity.User;
+
+import java.util.List;
+
+public interface ComplaintRepositoryCustom {
+    /**
+     * One page of the moderator queue ordered by (creationDate, id). A null moderatorId selects unassigned
+     * complaints; null status, plaintiffType or after leave that filter out.
+     */
+    List<ComplaintDto> findQueuePage(Long moderatorId, String status, Class<? extends User> plaintiffType,
+                                     boolean ascending, KeysetCursor after, int limit);
+}
@@ -0,0 +1,99 @@
+package org.docpirates.ispi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.docpirates.ispi.dto.ComplaintDto;
+import org.docpirates.ispi.dto.KeysetCursor;
+import org.docpirates.ispi.entity.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The page of ids is picked from complaint alone, so it walks the (moderator_id, creation_date, id) index and
+ * stops after {@code limit} rows; the projection then joins deal, post and the users for those ids only.
+ */
+public class ComplaintRepositoryImpl implements ComplaintRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ComplaintDto> findQueuePage(Long moderatorId, String status, Class<? extends User> plaintiffType,
+                                            boolean ascending, KeysetCursor after, int limit) {
+        List<Long> ids = findQueueIds(moderatorId, status, plaintiffType, ascending, after, limit);
+        if (ids.isEmpty())
+            return List.of();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ComplaintDto> query = cb.createQuery(ComplaintDto.class);
+        Root<Complaint> complaint = query.from(Complaint.class);
+        Join<Complaint, Deal> deal = complaint.join("deal");
+        Join<Deal, Student> student = deal.join("post").join("student");
+        Join<Deal, Teacher> teacher = deal.join("teacher");
+        Join<Complaint, Moderator> moderator = complaint.join("moderator", JoinType.LEFT);
+
+        query.select(cb.construct(ComplaintDto.class,
+                        complaint.get("id"),
+                        complaint.get("description"),
+                        complaint.get("creationDate"),
+                        complaint.get("status"),
+                        moderator.get("pib"),
+                        deal.get("id"),
+                        student.get("id"),
+                        teacher.get("id"),
+                        student.get("pib"),
+                        teacher.get("pib"),
+                        student.get("phoneNumber"),
+                        teacher.get("phoneNumber"),
+                        student.get("email"),
+                        teacher.get("email"),
+                        complaint.get("plaintiff").get("id")))
+                .where(complaint.get("id").in(ids))
+                .orderBy(order(cb, complaint, ascending));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private List<Long> findQueueIds(Long moderatorId, String status, Class<? extends User> plaintiffType,
+                                    boolean ascending, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Complaint> complaint = query.from(Complaint.class);
+        Path<LocalDateTime> creationDate = complaint.get("creationDate");
+        Path<Long> id = complaint.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(moderatorId != null
+                ? cb.equal(complaint.get("moderator").get("id"), moderatorId)
+                : cb.isNull(complaint.get("moderator")));
+        if (status != null)
+            predicates.add(cb.equal(cb.upper(complaint.get("status")), status));
+        // Treating the plaintiff join as the subtype turns the type filter into an inner join on its table.
+        if (plaintiffType != null) {
+            Join<Complaint, ? extends User> plaintiff = cb.treat(complaint.<Complaint, User>join("plaintiff"), plaintiffType);
+            predicates.add(cb.isNotNull(plaintiff.get("id")));
+        }
+        // The plain bound on creationDate lets the index scan start at the cursor.
+        if (after != null)
+            predicates.add(ascending
+                    ? cb.and(cb.greaterThanOrEqualTo(creationDate, after.timestamp()),
+                             cb.or(cb.greaterThan(creationDate, after.timestamp()), cb.greaterThan(id, after.id())))
+                    : cb.and(cb.lessThanOrEqualTo(creationDate, after.timestamp()),
+                             cb.or(cb.lessThan(creationDate, after.timestamp()), cb.lessThan(id, after.id()))));
+
+        query.select(id)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(order(cb, complaint, ascending));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static List<Order> order(CriteriaBuilder cb, Root<Complaint> complaint, boolean ascending) {
+        return ascending
+                ? List.of(cb.asc(complaint.get("creationDate")), cb.asc(complaint.get("id")))
+                : List.of(cb.desc(complaint.get("creationDate")), cb.desc(complaint.get("id")));
+    }
+}
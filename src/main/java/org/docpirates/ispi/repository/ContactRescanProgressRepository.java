@@ -0,0 +1,6 @@
+package org.docpirates.ispi.repository;
+
+import org.docpirates.ispi.entity.ContactRescanProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ContactRescanProgressRepository extends JpaRepository<ContactRescanProgress, String> {}
@@ -5,6 +5,9 @@ import org.docpirates.ispi.entity.Deal;
 import org.docpirates.ispi.entity.Post;
 import org.docpirates.ispi.entity.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -13,5 +16,10 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
     Optional<Deal> findByPost(Post post);
     List<Deal> findByPostIn(List<Post> posts);
     Optional<Deal> findByPostId(Long postId);
-    List<Deal> findAllByTeacherIdAndStudentFeedbackGreaterThan(Long teacher_id, int studentFeedback);
+
+    @Modifying
+    @Query("UPDATE Deal d SET d.studentFeedback = :feedback WHERE d.id = :dealId AND d.studentFeedback = :previous")
+    int updateStudentFeedback(@Param("dealId") Long dealId,
+                              @Param("previous") int previous,
+                              @Param("feedback") int feedback);
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package org.docpirates.ispi.repository;
 
+import org.docpirates.ispi.dto.DocumentFingerprintDto;
 import org.docpirates.ispi.entity.Document;
 import org.docpirates.ispi.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,4 +27,46 @@ public interface DocumentRepository extends JpaRepository<Document, Long>,
     List<Document> findByAuthorOrderByUploadedAtDesc(User user);
 
     long countByAuthorAndUploadedAtAfter(User author, LocalDateTime date);
-}
\ No newline at end of file
+
+    @Query("""
+        SELECT new org.docpirates.ispi.dto.DocumentFingerprintDto(d.id, d.minHashSignature, d.termCount)
+        FROM Document d
+        WHERE d.minHashSignature IS NOT NULL
+    """)
+    List<DocumentFingerprintDto> findAllFingerprints();
+
+    @Query("SELECT d.id FROM Document d WHERE d.minHashSignature IS NULL")
+    List<Long> findIdsWithoutFingerprint();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.minHashSignature = :signature, d.termCount = :termCount WHERE d.id = :id")
+    void updateFingerprint(@Param("id") Long id,
+                           @Param("signature") byte[] signature,
+                           @Param("termCount") int termCount);
+
+    String FILTERED_DOCUMENTS = """
+            SELECT d FROM Document d
+            WHERE (:workType IS NULL OR d.workType = :workType)
+              AND (:subjectArea IS NULL OR d.subjectArea = :subjectArea)
+              AND (:extension IS NULL OR d.extension = :extension)
+            """;
+
+    @Query(FILTERED_DOCUMENTS + "ORDER BY d.uploadedAt DESC, d.id DESC")
+    List<Document> findFiltered(@Param("workType") String workType,
+                                @Param("subjectArea") String subjectArea,
+                                @Param("extension") String extension,
+                                Pageable pageable);
+
+    // Keyset continuation of findFiltered, served by idx_document_uploaded_at.
+    @Query(FILTERED_DOCUMENTS + """
+              AND (d.uploadedAt, d.id) < (:uploadedAt, :id)
+            ORDER BY d.uploadedAt DESC, d.id DESC
+            """)
+    List<Document> findFilteredBefore(@Param("workType") String workType,
+                                      @Param("subjectArea") String subjectArea,
+                                      @Param("extension") String extension,
+                                      @Param("uploadedAt") LocalDateTime uploadedAt,
+                                      @Param("id") Long id,
+                                      Limit limit);
+}
@@ -0,0 +1,40 @@
+package org.docpirates.ispi.repository;
+
+import org.docpirates.ispi.dto.LastStudentResponseDto;
+import org.docpirates.ispi.dto.LastTeacherResponseDto;
+import org.docpirates.ispi.entity.NegotiationThread;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface NegotiationThreadRepository extends JpaRepository<NegotiationThread, Long> {
+    Optional<NegotiationThread> findByPostIdAndTeacherId(Long postId, Long teacherId);
+    void deleteAllByPostId(Long postId);
+
+    @Modifying
+    @Query(value = """
+    INSERT INTO negotiation_thread (post_id, teacher_id, version) VALUES (:postId, :teacherId, 0)
+    ON CONFLICT (post_id, teacher_id) DO NOTHING
+    """, nativeQuery = true)
+    void insertIfAbsent(@Param("postId") Long postId, @Param("teacherId") Long teacherId);
+
+    @Query("""
+    SELECT new org.docpirates.ispi.dto.LastStudentResponseDto(r.id, r.price, r.creationDate)
+    FROM NegotiationThread t JOIN Response r ON r.id = t.lastStudentResponseId
+    WHERE t.post.id = :postId AND t.teacher.id = :teacherId AND r.respondent.id = :studentId
+    """)
+    Optional<LastStudentResponseDto> findLastStudentResponse(@Param("postId") Long postId,
+                                                             @Param("teacherId") Long teacherId,
+                                                             @Param("studentId") Long studentId);
+
+    @Query("""
+    SELECT new org.docpirates.ispi.dto.LastTeacherResponseDto(r.id, r.price, r.creationDate)
+    FROM NegotiationThread t JOIN Response r ON r.id = t.lastTeacherResponseId
+    WHERE t.post.id = :postId AND t.teacher.id = :teacherId
+    """)
+    Optional<LastTeacherResponseDto> findLastTeacherResponse(@Param("postId") Long postId,
+                                                             @Param("teacherId") Long teacherId);
+}
@@ -3,4 +3,9 @@ package org.docpirates.ispi.repository;
 import org.docpirates.ispi.entity.PostError;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface PostErrorRepository extends JpaRepository<PostError, Long> {}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+
+public interface PostErrorRepository extends JpaRepository<PostError, Long> {
+    List<PostError> findByPostIdIn(Collection<Long> postIds);
+}
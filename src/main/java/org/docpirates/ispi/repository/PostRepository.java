@@ -1,14 +1,74 @@
 package org.docpirates.ispi.repository;
 
+import org.docpirates.ispi.dto.PostDto;
 import org.docpirates.ispi.entity.Post;
 import org.docpirates.ispi.entity.Student;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificationExecutor<Post> {
     List<Post> findByStudent(Student student);
     List<Post> findAllByStudentId(Long studentId);
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = {"student", "workType", "institution", "subjectArea"})
+    List<Post> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    String OPEN_POST_DTOS = """
+            SELECT new org.docpirates.ispi.dto.PostDto(
+                p.id, p.description, s.id, s.pib, w.name, sa.name, i.name,
+                p.initialPrice, p.creationDate, p.status)
+            FROM Post p
+            JOIN p.student s
+            JOIN p.workType w
+            JOIN p.subjectArea sa
+            JOIN p.institution i
+            WHERE p.status = org.docpirates.ispi.enums.PostStatus.OPEN
+              AND (:university IS NULL OR i.name = :university)
+              AND (:subjectArea IS NULL OR sa.name = :subjectArea)
+              AND (:priceMin IS NULL OR p.initialPrice >= :priceMin)
+              AND (:priceMax IS NULL OR p.initialPrice <= :priceMax)
+            """;
+
+    // One statement per page: the associations are joined in and read straight into the DTO,
+    // and a List return type keeps Spring Data from issuing a count query.
+    @Query(OPEN_POST_DTOS)
+    List<PostDto> findOpenPosts(@Param("university") String university,
+                                @Param("subjectArea") String subjectArea,
+                                @Param("priceMin") BigDecimal priceMin,
+                                @Param("priceMax") BigDecimal priceMax,
+                                Pageable pageable);
+
+    // Keyset continuations of the creation date feed, served by idx_post_open_creation_date.
+    @Query(OPEN_POST_DTOS + """
+              AND (p.creationDate, p.id) < (:creationDate, :id)
+            ORDER BY p.creationDate DESC, p.id DESC
+            """)
+    List<PostDto> findOpenPostsBefore(@Param("university") String university,
+                                      @Param("subjectArea") String subjectArea,
+                                      @Param("priceMin") BigDecimal priceMin,
+                                      @Param("priceMax") BigDecimal priceMax,
+                                      @Param("creationDate") LocalDateTime creationDate,
+                                      @Param("id") Long id,
+                                      Limit limit);
+
+    @Query(OPEN_POST_DTOS + """
+              AND (p.creationDate, p.id) > (:creationDate, :id)
+            ORDER BY p.creationDate ASC, p.id ASC
+            """)
+    List<PostDto> findOpenPostsAfter(@Param("university") String university,
+                                     @Param("subjectArea") String subjectArea,
+                                     @Param("priceMin") BigDecimal priceMin,
+                                     @Param("priceMax") BigDecimal priceMax,
+                                     @Param("creationDate") LocalDateTime creationDate,
+                                     @Param("id") Long id,
+                                     Limit limit);
+}
@@ -1,6 +1,16 @@
 package org.docpirates.ispi.repository;
 
 import org.docpirates.ispi.entity.ProfileError;
+import org.docpirates.ispi.enums.ContactErrorStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProfileErrorRepository extends JpaRepository<ProfileError, Long> {}
+import java.util.Collection;
+import java.util.List;
+
+public interface ProfileErrorRepository extends JpaRepository<ProfileError, Long> {
+    @Query("SELECT e.profileId FROM ProfileError e WHERE e.profileId IN :profileIds AND e.contactErrorStatus = :status")
+    List<Long> findProfileIdsWithStatus(@Param("profileIds") Collection<Long> profileIds,
+                                        @Param("status") ContactErrorStatus status);
+}
@@ -1,7 +1,7 @@
 package org.docpirates.ispi.repository;
 
+import org.docpirates.ispi.dto.ResponseChainLink;
 import org.docpirates.ispi.entity.Response;
-import org.docpirates.ispi.enums.RespondentType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,25 +12,77 @@ import java.util.Optional;
 import java.util.Set;
 
 public interface ResponseRepository extends JpaRepository<Response, Long> {
-    @Query("""
-    SELECT r FROM Response r
-    WHERE r.post.id = :postId
-      AND r.respondentType = :respondentType
-      AND r.prevResponseId IN (
-          SELECT t.id FROM Response t WHERE t.respondent.id = :teacherId
-      )
-    ORDER BY r.creationDate DESC
-    """)
-    Optional<Response> findNewestStudentResponseByPostIdAndTeacherResponse(
-            @Param("postId") Long postId,
-            @Param("teacherId") Long teacherId,
-            @Param("respondentType") RespondentType respondentType
-    );
-
-    Optional<Response> findTopByPostIdAndRespondentIdOrderByCreationDateDesc(Long postId, Long respondentId);
     List<Response> findAllByPostId(Long postId);
     List<Response> findAllByRespondentId(Long respondentId);
     List<Response> findAllByPostIdIn(Set<Long> postIds);
-    List<Response> findAllByPostIdAndRespondentId(Long postId, Long respondentId);
     void deleteAllByPostId(Long postId);
-}
\ No newline at end of file
+
+    @Query("SELECT r.threadId FROM Response r WHERE r.id = :responseId")
+    Optional<Long> findThreadIdById(@Param("responseId") Long responseId);
+
+    // Chains start at responses without a predecessor and follow prev_response_id forward
+    // (idx_response_prev_response). Rows come back grouped by chain, ordered by depth from the root (0).
+    @Query(value = """
+            WITH RECURSIVE chain AS (
+                SELECT id, price, creation_date, respondent_id, respondent_type, prev_response_id,
+                       id AS root_id, 0 AS depth
+                FROM response
+                WHERE post_id = :postId AND prev_response_id IS NULL
+              UNION ALL
+                SELECT n.id, n.price, n.creation_date, n.respondent_id, n.respondent_type, n.prev_response_id,
+                       c.root_id, c.depth + 1
+                FROM response n
+                JOIN chain c ON n.prev_response_id = c.id
+            )
+            SELECT id AS responseId, price, creation_date AS creationDate, respondent_id AS respondent,
+                   respondent_type AS respondentType, prev_response_id AS prevResponseId,
+                   root_id AS rootId, depth
+            FROM chain
+            ORDER BY root_id, depth
+            """, nativeQuery = true)
+    List<ResponseChainLink> findChainsByPostId(@Param("postId") Long postId);
+
+    // Chains on every post the respondent answered, keeping only the chains they take part in.
+    @Query(value = """
+            WITH RECURSIVE chain AS (
+                SELECT id, price, creation_date, respondent_id, respondent_type, prev_response_id,
+                       id AS root_id, 0 AS depth
+                FROM response
+                WHERE prev_response_id IS NULL
+                  AND post_id IN (SELECT post_id FROM response WHERE respondent_id = :respondentId)
+              UNION ALL
+                SELECT n.id, n.price, n.creation_date, n.respondent_id, n.respondent_type, n.prev_response_id,
+                       c.root_id, c.depth + 1
+                FROM response n
+                JOIN chain c ON n.prev_response_id = c.id
+            )
+            SELECT id AS responseId, price, creation_date AS creationDate, respondent_id AS respondent,
+                   respondent_type AS respondentType, prev_response_id AS prevResponseId,
+                   root_id AS rootId, depth
+            FROM chain
+            WHERE root_id IN (SELECT root_id FROM chain WHERE respondent_id = :respondentId)
+            ORDER BY root_id, depth
+            """, nativeQuery = true)
+    List<ResponseChainLink> findChainsByParticipant(@Param("respondentId") Long respondentId);
+
+    // Walks back from a response to the root of its chain; rows are root first, depth counted from the root.
+    @Query(value = """
+            WITH RECURSIVE chain AS (
+                SELECT id, price, creation_date, respondent_id, respondent_type, prev_response_id, 0 AS steps
+                FROM response
+                WHERE id = :responseId
+              UNION ALL
+                SELECT p.id, p.price, p.creation_date, p.respondent_id, p.respondent_type, p.prev_response_id,
+                       c.steps + 1
+                FROM response p
+                JOIN chain c ON p.id = c.prev_response_id
+            )
+            SELECT id AS responseId, price, creation_date AS creationDate, respondent_id AS respondent,
+                   respondent_type AS respondentType, prev_response_id AS prevResponseId,
+                   first_value(id) OVER (ORDER BY steps DESC) AS rootId,
+                   max(steps) OVER () - steps AS depth
+            FROM chain
+            ORDER BY steps DESC
+            """, nativeQuery = true)
+    List<ResponseChainLink> findChainEndingAt(@Param("responseId") Long responseId);
+}
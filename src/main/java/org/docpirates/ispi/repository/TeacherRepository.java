@@ -1,6 +1,52 @@
 package org.docpirates.ispi.repository;
 
+import org.docpirates.ispi.dto.TopTeacherDto;
 import org.docpirates.ispi.entity.Teacher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface TeacherRepository extends JpaRepository<Teacher, Long> {}
+import java.util.List;
+
+public interface TeacherRepository extends JpaRepository<Teacher, Long> {
+    List<Teacher> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("""
+    SELECT new org.docpirates.ispi.dto.TopTeacherDto(t.id, t.pib, t.rating, t.ratingCount)
+    FROM Teacher t
+    WHERE t.ratingCount > 0
+    ORDER BY t.rating DESC, t.id
+    """)
+    List<TopTeacherDto> findTopRated(Limit limit);
+
+    @Modifying
+    @Query(value = """
+    UPDATE teacher
+    SET rating_sum = rating_sum + :sumDelta,
+        rating_count = rating_count + :countDelta,
+        rating = CASE WHEN rating_count + :countDelta > 0
+                      THEN CAST(rating_sum + :sumDelta AS real) / (rating_count + :countDelta)
+                      ELSE 0 END
+    WHERE id = :teacherId
+    """, nativeQuery = true)
+    int addFeedback(@Param("teacherId") Long teacherId,
+                    @Param("sumDelta") long sumDelta,
+                    @Param("countDelta") int countDelta);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE teacher t
+    SET rating_sum = f.total, rating_count = f.rated,
+        rating = CASE WHEN f.rated > 0 THEN CAST(f.total AS real) / f.rated ELSE 0 END
+    FROM (SELECT o.id, coalesce(sum(d.student_feedback), 0) AS total, count(d.id) AS rated
+          FROM teacher o
+          LEFT JOIN deal d ON d.teacher_id = o.id AND d.student_feedback > 0
+          GROUP BY o.id) f
+    WHERE t.id = f.id
+    """, nativeQuery = true)
+    int recalculateRatings();
+}
@@ -15,10 +15,12 @@ public interface UserDownloadsRepository extends JpaRepository<UserDownloads, Us
         SELECT COUNT(ud)
         FROM UserDownloads ud
         WHERE ud.user = :user
-          AND ud.document.uploadedAt > :fromDate
+          AND ud.downloadedAt > :fromDate
     """)
     int countDownloadsSince(
             @Param("user") User user,
             @Param("fromDate") LocalDateTime fromDate
     );
+
+    boolean existsByUserAndDocumentIdAndDownloadedAtAfter(User user, Long documentId, LocalDateTime fromDate);
 }
@@ -1,36 +1,240 @@
 package org.docpirates.ispi.service;
 
+import org.docpirates.ispi.enums.ContactInfoType;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Single pass over the text that reproduces the original rule chain:
+ * <ol>
+ *     <li>a keyword inside the lowercased text stripped to {@code [a-zа-яіїєґ0-9]};</li>
+ *     <li>any {@code @} or {@code _};</li>
+ *     <li>{@code http://} or {@code https://}, ASCII case-insensitive;</li>
+ *     <li>{@code .com .ua .net .org .me .gg .io} followed by a non-word character or the end;</li>
+ *     <li>digit groups of 1-3, 2-3, 2-3 and 2+ digits separated by runs of {@code - ()}.</li>
+ * </ol>
+ * Rules 3-5 used {@code String.matches(".*...*")}, and {@code .} never matches a line terminator, so they
+ * only ever fired on single-line text; the one exception is a domain directly followed by the only line
+ * terminator. The e-mail pattern needed an {@code @} and is covered by rule 2. Keywords containing dots
+ * ("i.ua", "meta.ua", "mail.ru") could never match the stripped text and are left out.
+ */
 @Service
 public class ContactInfoService {
+
+    private static final String[] KEYWORDS = {
+            "tg", "telegram", "telega", "тлг", "теле", "теграм", "телеґрам",
+            "inst", "instagram", "інст", "інстаграм",
+            "нік", "username", "акаунт", "аккаунт", "gmail", "yahoo", "hotmail",
+            "outlook", "ukrnet", "protonmail"
+    };
+    private static final String[] DOMAINS = {"com", "ua", "net", "org", "me", "gg", "io"};
+    private static final String URL_PREFIX = "https://";
+
+    private static final int ALPHABET = 26 + 10 + 32 + 4;
+    private static final int[][] KEYWORD_AUTOMATON;
+    private static final boolean[] KEYWORD_FOUND;
+
+    static {
+        List<int[]> transitions = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        transitions.add(newState());
+        terminal.add(false);
+        for (String keyword : KEYWORDS) {
+            int state = 0;
+            for (char c : keyword.toCharArray()) {
+                int symbol = symbol(c);
+                if (transitions.get(state)[symbol] <= 0) {
+                    transitions.add(newState());
+                    terminal.add(false);
+                    transitions.get(state)[symbol] = transitions.size() - 1;
+                }
+                state = transitions.get(state)[symbol];
+            }
+            terminal.set(state, true);
+        }
+
+        int[][] automaton = transitions.toArray(new int[0][]);
+        boolean[] found = new boolean[automaton.length];
+        int[] fail = new int[automaton.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            if (automaton[0][symbol] > 0)
+                queue.add(automaton[0][symbol]);
+            else
+                automaton[0][symbol] = 0;
+        }
+        found[0] = terminal.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            found[state] = terminal.get(state) || found[fail[state]];
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int next = automaton[state][symbol];
+                if (next > 0) {
+                    fail[next] = automaton[fail[state]][symbol];
+                    queue.add(next);
+                } else {
+                    automaton[state][symbol] = automaton[fail[state]][symbol];
+                }
+            }
+        }
+        KEYWORD_AUTOMATON = automaton;
+        KEYWORD_FOUND = found;
+    }
+
+    // Phone scanner states, one bit each: digits read in the current group, or the group closed by separators.
+    private static final int G1_1 = 1, G1_2 = 1 << 1, G1_3 = 1 << 2, G1_SEP = 1 << 3;
+    private static final int G2_1 = 1 << 4, G2_2 = 1 << 5, G2_3 = 1 << 6, G2_SEP = 1 << 7;
+    private static final int G3_1 = 1 << 8, G3_2 = 1 << 9, G3_3 = 1 << 10, G3_SEP = 1 << 11;
+    private static final int G4_1 = 1 << 12, G4_2 = 1 << 13;
+
     public static boolean containsContactInfo(String text) {
-        if (text == null) return false;
-        String lower = text.toLowerCase();
-        String normalized = lower.replaceAll("[^a-zа-яіїєґ0-9]", "");
-        String[] keywords = {
-                "tg", "telegram", "telega", "тлг", "теле", "теграм", "телеґрам",
-                "inst", "instagram", "інст", "інстаграм",
-                "нік", "username", "акаунт", "аккаунт", "gmail", "yahoo", "hotmail",
-                "outlook", "ukrnet", "i.ua", "meta.ua", "mail.ru", "protonmail"
-        };
-        for (String keyword : keywords) {
-            if (normalized.contains(keyword))
-                return true;
+        return findContactInfo(text) != null;
+    }
+
+    /** The first rule the text breaks, in the order above, or null when it has no contact info. */
+    public static ContactInfoType findContactInfo(String text) {
+        if (text == null) return null;
+        int length = text.length();
+
+        int keywordState = 0;
+        boolean specialCharacter = false;
+        int urlMatched = 0;
+        boolean url = false;
+        int lastDot = -1;
+        boolean domain = false;
+        int domainBeforeTerminator = -1;
+        int phone = 0;
+        boolean phoneFound = false;
+        int terminators = 0;
+        int terminatorIndex = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            int symbol = symbol(Character.toLowerCase(c));
+            if (symbol >= 0) {
+                keywordState = KEYWORD_AUTOMATON[keywordState][symbol];
+                if (KEYWORD_FOUND[keywordState])
+                    return ContactInfoType.KEYWORD;
+            }
+
+            if (c == '@' || c == '_')
+                specialCharacter = true;
+
+            if (isLineTerminator(c)) {
+                terminators++;
+                terminatorIndex = i;
+            }
+
+            urlMatched = advanceUrl(urlMatched, c);
+            if (urlMatched == URL_PREFIX.length())
+                url = true;
+
+            if (!isWordCharacter(c) && endsWithDomain(text, lastDot, i)) {
+                domain = true;
+                if (isLineTerminator(c))
+                    domainBeforeTerminator = i;
+            }
+            if (c == '.')
+                lastDot = i;
+
+            phone = advancePhone(phone, c);
+            if ((phone & G4_2) != 0)
+                phoneFound = true;
         }
+        if (endsWithDomain(text, lastDot, length))
+            domain = true;
 
-        if (text.contains("@") || text.contains("_"))
-            return true;
+        if (specialCharacter)
+            return ContactInfoType.SPECIAL_CHARACTER;
+        if (terminators == 0) {
+            if (url) return ContactInfoType.URL;
+            if (domain) return ContactInfoType.DOMAIN;
+            if (phoneFound) return ContactInfoType.PHONE;
+        } else if (terminators == 1 && domainBeforeTerminator == terminatorIndex) {
+            return ContactInfoType.DOMAIN;
+        }
+        return null;
+    }
 
-        if (text.matches("(?i).*https?://.*") || text.matches(".*\\.(com|ua|net|org|me|gg|io)(\\W|$).*"))
-            return true;
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
 
-        if (text.matches(".*\\+?\\d{1,3}[- ()]*\\d{2,3}[- ()]*\\d{2,3}[- ()]*\\d{2,4}.*"))
-            return true;
+    // Position in [a-z0-9а-яіїєґ], or -1 for characters the keyword check strips out.
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= '0' && c <= '9') return 26 + (c - '0');
+        if (c >= 'а' && c <= 'я') return 36 + (c - 'а');
+        return switch (c) {
+            case 'і' -> 68;
+            case 'ї' -> 69;
+            case 'є' -> 70;
+            case 'ґ' -> 71;
+            default -> -1;
+        };
+    }
 
-        if (text.matches(".*[a-zA-Z0-9._%+-]+\\s*@\\s*[a-zA-Z0-9.-]+\\s*\\.\\s*[a-zA-Z]{2,}.*"))
-            return true;
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // Only the first character of "http(s)://" is an 'h', so a mismatch restarts at that character.
+    private static int advanceUrl(int matched, char c) {
+        char lower = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        if (matched == 4 && lower == ':')
+            return 6;
+        if (matched < URL_PREFIX.length() && lower == URL_PREFIX.charAt(matched))
+            return matched + 1;
+        return lower == 'h' ? 1 : 0;
+    }
+
+    private static boolean endsWithDomain(String text, int dot, int end) {
+        if (dot < 0) return false;
+        int length = end - dot - 1;
+        if (length < 2 || length > 3) return false;
+        for (String domain : DOMAINS)
+            if (domain.length() == length && text.startsWith(domain, dot + 1))
+                return true;
         return false;
     }
 
+    private static int advancePhone(int states, char c) {
+        if (c >= '0' && c <= '9') {
+            int next = G1_1;
+            if ((states & G1_1) != 0) next |= G1_2 | G2_1;
+            if ((states & G1_2) != 0) next |= G1_3 | G2_1;
+            if ((states & G1_3) != 0) next |= G2_1;
+            if ((states & G1_SEP) != 0) next |= G2_1;
+            if ((states & G2_1) != 0) next |= G2_2;
+            if ((states & G2_2) != 0) next |= G2_3 | G3_1;
+            if ((states & G2_3) != 0) next |= G3_1;
+            if ((states & G2_SEP) != 0) next |= G3_1;
+            if ((states & G3_1) != 0) next |= G3_2;
+            if ((states & G3_2) != 0) next |= G3_3 | G4_1;
+            if ((states & G3_3) != 0) next |= G4_1;
+            if ((states & G3_SEP) != 0) next |= G4_1;
+            if ((states & G4_1) != 0) next |= G4_2;
+            return next;
+        }
+        if (c == '-' || c == ' ' || c == '(' || c == ')') {
+            int next = 0;
+            if ((states & (G1_1 | G1_2 | G1_3 | G1_SEP)) != 0) next |= G1_SEP;
+            if ((states & (G2_2 | G2_3 | G2_SEP)) != 0) next |= G2_SEP;
+            if ((states & (G3_2 | G3_3 | G3_SEP)) != 0) next |= G3_SEP;
+            return next;
+        }
+        return 0;
+    }
 }
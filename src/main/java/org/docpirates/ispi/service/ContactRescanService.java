@@ -0,0 +1,243 @@
+package org.docpirates.ispi.service;
+
+import jakarta.annotation.PreDestroy;
+import org.docpirates.ispi.dto.ContactRescanStatusDto;
+import org.docpirates.ispi.entity.ContactRescanProgress;
+import org.docpirates.ispi.entity.Post;
+import org.docpirates.ispi.entity.PostError;
+import org.docpirates.ispi.entity.ProfileError;
+import org.docpirates.ispi.entity.Teacher;
+import org.docpirates.ispi.enums.ContactErrorStatus;
+import org.docpirates.ispi.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Re-checks stored posts and teacher profiles against the current contact rules. Pages are read by id
+ * (keyset), evaluated in parallel and committed together with the progress row, so a stopped scan
+ * resumes after the last committed page. After each page the scanner sleeps long enough to keep its
+ * share of wall time at the configured duty cycle.
+ */
+@Service
+public class ContactRescanService {
+
+    public static final String POSTS = "post";
+    public static final String TEACHERS = "teacher";
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final PostRepository postRepository;
+    private final TeacherRepository teacherRepository;
+    private final PostErrorRepository postErrorRepository;
+    private final ProfileErrorRepository profileErrorRepository;
+    private final ContactRescanProgressRepository progressRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final double dutyCycle;
+
+    private final ExecutorService scanner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contact-rescan");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+    private volatile String currentTarget;
+    private volatile double rowsPerSecond;
+
+    public ContactRescanService(PostRepository postRepository,
+                                TeacherRepository teacherRepository,
+                                PostErrorRepository postErrorRepository,
+                                ProfileErrorRepository profileErrorRepository,
+                                ContactRescanProgressRepository progressRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${ispi.rescan.batch-size:500}") int batchSize,
+                                @Value("${ispi.rescan.duty-cycle:0.25}") double dutyCycle) {
+        this.postRepository = postRepository;
+        this.teacherRepository = teacherRepository;
+        this.postErrorRepository = postErrorRepository;
+        this.profileErrorRepository = profileErrorRepository;
+        this.progressRepository = progressRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.dutyCycle = Math.min(1.0, Math.max(0.01, dutyCycle));
+    }
+
+    /** Returns false when a scan is already running. */
+    public boolean start(boolean restart) {
+        if (!running.compareAndSet(false, true))
+            return false;
+        scanner.execute(() -> {
+            try {
+                scan(POSTS, restart, this::scanPostPage);
+                scan(TEACHERS, restart, this::scanTeacherPage);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.err.println("Contact rescan failed - " + e.getMessage());
+            } finally {
+                currentTarget = null;
+                rowsPerSecond = 0;
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public ContactRescanStatusDto status() {
+        return new ContactRescanStatusDto(running.get(), currentTarget, rowsPerSecond, progressRepository.findAll());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        scanner.shutdownNow();
+    }
+
+    private void scan(String target, boolean restart, PageScanner pageScanner) throws InterruptedException {
+        if (stopping) return;
+        ContactRescanProgress progress = progressRepository.findById(target)
+                .filter(existing -> !restart && !existing.isFinished())
+                .orElseGet(() -> ContactRescanProgress.builder()
+                        .target(target)
+                        .startedAt(LocalDateTime.now())
+                        .build());
+        currentTarget = target;
+        System.out.println("Contact rescan of " + target + " starting after id " + progress.getLastId());
+
+        long start = System.nanoTime();
+        long lastReport = start;
+        long scannedThisRun = 0;
+        while (!stopping) {
+            long pageStart = System.nanoTime();
+            Integer pageSize = transactionTemplate.execute(status -> pageScanner.scan(progress));
+            long busy = System.nanoTime() - pageStart;
+            if (pageSize == null || pageSize == 0) {
+                progress.setFinished(true);
+                progress.setUpdatedAt(LocalDateTime.now());
+                progressRepository.save(progress);
+                break;
+            }
+            scannedThisRun += pageSize;
+            rowsPerSecond = scannedThisRun / seconds(System.nanoTime() - start);
+            if (System.nanoTime() - lastReport >= REPORT_INTERVAL_NANOS) {
+                report(target, progress);
+                lastReport = System.nanoTime();
+            }
+            throttle(busy);
+        }
+        report(target, progress);
+    }
+
+    private int scanPostPage(ContactRescanProgress progress) {
+        List<Post> page = postRepository.findByIdGreaterThanOrderByIdAsc(progress.getLastId(), Limit.of(batchSize));
+        if (page.isEmpty()) return 0;
+
+        // post_error.post_id is unique: a post whose earlier error was already decided gets that row reopened.
+        Map<Long, PostError> reported = postErrorRepository.findByPostIdIn(page.stream().map(Post::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(error -> error.getPost().getId(), Function.identity()));
+        List<PostError> errors = page.parallelStream()
+                .filter(post -> !reported.containsKey(post.getId())
+                        || reported.get(post.getId()).getContactErrorStatus() != ContactErrorStatus.REVIEW)
+                .filter(post -> ContactInfoService.containsContactInfo(post.getDescription()))
+                .map(post -> PostError.builder()
+                        .id(reported.containsKey(post.getId()) ? reported.get(post.getId()).getId() : null)
+                        .description("Sensitive data found in post description.")
+                        .creationDate(LocalDateTime.now())
+                        .workType(post.getWorkType().getName())
+                        .university(post.getInstitution().getName())
+                        .subjectArea(post.getSubjectArea().getName())
+                        .postDescription(post.getDescription())
+                        .initialPrice(post.getInitialPrice())
+                        .student(post.getStudent())
+                        .post(post)
+                        .existingPost(true)
+                        .contactErrorStatus(ContactErrorStatus.REVIEW)
+                        .build())
+                .toList();
+        postErrorRepository.saveAll(errors);
+        return advance(progress, page.getLast().getId(), page.size(), errors.size());
+    }
+
+    private int scanTeacherPage(ContactRescanProgress progress) {
+        List<Teacher> page = teacherRepository.findByIdGreaterThanOrderByIdAsc(progress.getLastId(), Limit.of(batchSize));
+        if (page.isEmpty()) return 0;
+
+        Set<Long> alreadyReported = new HashSet<>(profileErrorRepository.findProfileIdsWithStatus(
+                page.stream().map(Teacher::getId).toList(), ContactErrorStatus.REVIEW));
+        List<ProfileError> errors = page.parallelStream()
+                .filter(teacher -> !alreadyReported.contains(teacher.getId()))
+                .map(teacher -> {
+                    String description;
+                    if (ContactInfoService.containsContactInfo(teacher.getPib()))
+                        description = "PIB contains contact information";
+                    else if (ContactInfoService.containsContactInfo(teacher.getDescription()))
+                        description = "Description contains contact information";
+                    else
+                        return null;
+                    return ProfileError.builder()
+                            .description(description)
+                            .creationDate(LocalDateTime.now())
+                            .pib(teacher.getPib())
+                            .email(teacher.getEmail())
+                            .phoneNumber(teacher.getPhoneNumber())
+                            .role("TEACHER")
+                            .userDescription(teacher.getDescription())
+                            .contactErrorStatus(ContactErrorStatus.REVIEW)
+                            .profileId(teacher.getId())
+                            .build();
+                })
+                .filter(Objects::nonNull)
+                .toList();
+        profileErrorRepository.saveAll(errors);
+        return advance(progress, page.getLast().getId(), page.size(), errors.size());
+    }
+
+    private int advance(ContactRescanProgress progress, long lastId, int scanned, int flagged) {
+        progress.setLastId(lastId);
+        progress.setScanned(progress.getScanned() + scanned);
+        progress.setFlagged(progress.getFlagged() + flagged);
+        progress.setUpdatedAt(LocalDateTime.now());
+        progressRepository.save(progress);
+        return scanned;
+    }
+
+    // At duty cycle d, a page that took t to scan is followed by t * (1 - d) / d of idle time.
+    private void throttle(long busyNanos) throws InterruptedException {
+        if (dutyCycle >= 1.0) return;
+        long idleNanos = (long) (busyNanos * (1 - dutyCycle) / dutyCycle);
+        TimeUnit.NANOSECONDS.sleep(idleNanos);
+    }
+
+    private void report(String target, ContactRescanProgress progress) {
+        System.out.printf("Contact rescan of %s%s: %d scanned, %d flagged, last id %d (%.1f rows/s, duty cycle %.0f%%, %s since start)%n",
+                target, progress.isFinished() ? " done" : "", progress.getScanned(), progress.getFlagged(),
+                progress.getLastId(), rowsPerSecond, dutyCycle * 100,
+                Duration.between(progress.getStartedAt(), LocalDateTime.now()).withNanos(0));
+    }
+
+    private static double seconds(long nanos) {
+        return Math.max(nanos, 1) / 1_000_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface PageScanner {
+        int scan(ContactRescanProgress progress);
+    }
+}
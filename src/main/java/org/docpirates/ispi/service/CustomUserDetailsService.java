@@ -21,7 +21,11 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Користувача не знайдено: " + email));
+        return toUserDetails(user);
+    }
 
+    public static UserDetails toUserDetails(User user) {
+        String email = user.getEmail();
         String role = switch (user) {
             case Moderator moderator -> "MODERATOR";
             case Teacher teacher -> "TEACHER";
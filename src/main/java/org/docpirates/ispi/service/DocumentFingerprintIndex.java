@@ -0,0 +1,73 @@
+package org.docpirates.ispi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.dto.DocumentFingerprintDto;
+import org.docpirates.ispi.entity.Document;
+import org.docpirates.ispi.repository.DocumentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class DocumentFingerprintIndex {
+
+    private final DocumentRepository documentRepository;
+    private final TextExtractionCache textExtractionCache;
+    private final Map<Long, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFingerprints() {
+        for (DocumentFingerprintDto dto : documentRepository.findAllFingerprints())
+            add(dto.documentId(), MinHash.fromBytes(dto.minHashSignature()), dto.termCount());
+
+        List<Long> missing = documentRepository.findIdsWithoutFingerprint();
+        for (Long documentId : missing) {
+            Document document = documentRepository.findById(documentId).orElse(null);
+            if (document == null) continue;
+            try {
+                Set<String> terms = textExtractionCache.extractTerms(document.getDiskPath());
+                int[] signature = MinHash.signature(terms);
+                documentRepository.updateFingerprint(documentId, MinHash.toBytes(signature), terms.size());
+                add(documentId, signature, terms.size());
+            } catch (IOException e) {
+                System.err.println("Cannot fingerprint document: " + document.getDiskPath() + " - " + e.getMessage());
+            }
+        }
+        System.out.println("Loaded " + fingerprints.size() + " document fingerprints (" + missing.size() + " computed)");
+    }
+
+    public void add(Long documentId, int[] signature, int termCount) {
+        if (termCount == 0) return;
+        fingerprints.put(documentId, new Fingerprint(signature, termCount));
+        for (long key : MinHash.bandKeys(signature))
+            buckets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(documentId);
+    }
+
+    public boolean hasSimilar(int[] signature, int termCount, double thresholdPercent) {
+        if (termCount == 0) return false;
+        Set<Long> checked = new HashSet<>();
+        for (long key : MinHash.bandKeys(signature)) {
+            Set<Long> candidates = buckets.get(key);
+            if (candidates == null) continue;
+            for (Long candidateId : candidates) {
+                if (!checked.add(candidateId)) continue;
+                Fingerprint candidate = fingerprints.get(candidateId);
+                if (candidate != null && MinHash.estimateOverlapPercent(
+                        signature, termCount, candidate.signature(), candidate.termCount()) >= thresholdPercent)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private record Fingerprint(int[] signature, int termCount) {}
+}
@@ -0,0 +1,207 @@
+package org.docpirates.ispi.service;
+
+import org.docpirates.ispi.dto.DocumentForIndexing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Walker -> extraction workers -> batching sink. Each stage hands over through a bounded buffer,
+ * so a slow stage blocks the one before it instead of piling documents up in memory.
+ */
+public class DocumentIndexPipeline {
+
+    private static final DocumentForIndexing END = new DocumentForIndexing(null, null, null);
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final TextExtractionCache textExtractionCache;
+    private final int workers;
+    private final int batchSize;
+    private final long batchBytes;
+    private final BatchSink sink;
+
+    private final Semaphore inFlight;
+    private final BlockingQueue<DocumentForIndexing> extracted;
+
+    private final LongAdder walkedFiles = new LongAdder();
+    private final LongAdder walkerBlockedNanos = new LongAdder();
+    private final LongAdder extractedFiles = new LongAdder();
+    private final LongAdder extractedChars = new LongAdder();
+    private final LongAdder failedFiles = new LongAdder();
+    private final LongAdder extractNanos = new LongAdder();
+    private final LongAdder extractBlockedNanos = new LongAdder();
+    private long indexedDocuments;
+    private long failedDocuments;
+    private long batches;
+    private long sinkNanos;
+
+    @FunctionalInterface
+    public interface BatchSink {
+        /** Returns the number of documents that were indexed successfully. */
+        int write(List<DocumentForIndexing> batch) throws IOException;
+    }
+
+    public DocumentIndexPipeline(TextExtractionCache textExtractionCache, int workers,
+                                 int batchSize, long batchBytes, BatchSink sink) {
+        this.textExtractionCache = textExtractionCache;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.batchSize = Math.max(1, batchSize);
+        this.batchBytes = Math.max(1, batchBytes);
+        this.sink = sink;
+        this.inFlight = new Semaphore(this.workers * 2);
+        this.extracted = new ArrayBlockingQueue<>(Math.max(this.batchSize, this.workers * 2));
+    }
+
+    public void run(Path rootDir) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService extractors = Executors.newFixedThreadPool(workers, namedThreads("doc-extract-"));
+        AtomicReference<IOException> walkFailure = new AtomicReference<>();
+        Thread walker = Thread.ofPlatform().name("doc-walker").start(() -> {
+            try {
+                walk(rootDir, extractors);
+            } catch (IOException e) {
+                walkFailure.set(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finishWalk();
+            }
+        });
+
+        try {
+            drain(start);
+        } finally {
+            walker.interrupt();
+            extractors.shutdownNow();
+        }
+        walker.join();
+        report("done", start);
+        if (walkFailure.get() != null)
+            throw walkFailure.get();
+    }
+
+    private void walk(Path rootDir, ExecutorService extractors) throws IOException, InterruptedException {
+        try (Stream<Path> files = Files.walk(rootDir)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                long waitStart = System.nanoTime();
+                inFlight.acquire();
+                walkerBlockedNanos.add(System.nanoTime() - waitStart);
+                walkedFiles.increment();
+                extractors.execute(() -> extract(file));
+            }
+        }
+    }
+
+    // Every permit back means every submitted extraction has handed its document over.
+    private void finishWalk() {
+        try {
+            inFlight.acquire(workers * 2);
+            inFlight.release(workers * 2);
+            extracted.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            extracted.offer(END);
+        }
+    }
+
+    private void extract(Path file) {
+        try {
+            long extractStart = System.nanoTime();
+            String content = textExtractionCache.getText(file.toString());
+            extractNanos.add(System.nanoTime() - extractStart);
+            extractedFiles.increment();
+            extractedChars.add(content.length());
+
+            long waitStart = System.nanoTime();
+            extracted.put(new DocumentForIndexing(file.toString(), file.getFileName().toString(), content));
+            extractBlockedNanos.add(System.nanoTime() - waitStart);
+        } catch (IOException | RuntimeException e) {
+            failedFiles.increment();
+            System.err.println("Cannot read file: " + file + " - " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void drain(long start) throws InterruptedException {
+        List<DocumentForIndexing> batch = new ArrayList<>(batchSize);
+        long bytes = 0;
+        long lastReport = start;
+        while (true) {
+            DocumentForIndexing document = extracted.take();
+            if (document == END)
+                break;
+            batch.add(document);
+            bytes += estimateBytes(document);
+            if (batch.size() >= batchSize || bytes >= batchBytes) {
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+                bytes = 0;
+            }
+            if (System.nanoTime() - lastReport >= REPORT_INTERVAL_NANOS) {
+                report("progress", start);
+                lastReport = System.nanoTime();
+            }
+        }
+        if (!batch.isEmpty())
+            flush(batch);
+    }
+
+    private void flush(List<DocumentForIndexing> batch) {
+        long flushStart = System.nanoTime();
+        try {
+            int indexed = sink.write(batch);
+            indexedDocuments += indexed;
+            failedDocuments += batch.size() - indexed;
+        } catch (IOException | RuntimeException e) {
+            failedDocuments += batch.size();
+            System.err.println("Failed to index batch of " + batch.size() + " documents - " + e.getMessage());
+        }
+        sinkNanos += System.nanoTime() - flushStart;
+        batches++;
+    }
+
+    // Bulk bodies are JSON in UTF-8; two bytes per char is close enough for mixed Latin/Cyrillic text.
+    private static long estimateBytes(DocumentForIndexing document) {
+        return 2L * (document.getContent().length() + document.getFilename().length() + document.getPath().length());
+    }
+
+    private void report(String phase, long start) {
+        double elapsed = seconds(System.nanoTime() - start);
+        long extractedCount = extractedFiles.sum();
+        System.out.printf(
+                "Indexing %s after %.1fs: walk %d files (%.1f/s, blocked %.1fs) | extract %d ok, %d failed " +
+                        "(%.1f docs/s, %.1f MB text/s, %d workers, busy %.1fs, blocked on sink %.1fs) | " +
+                        "sink %d indexed, %d failed in %d batches (%.1f docs/s, bulk %.1fs) | queued: %d extracting, %d waiting for sink%n",
+                phase, elapsed,
+                walkedFiles.sum(), walkedFiles.sum() / elapsed, seconds(walkerBlockedNanos.sum()),
+                extractedCount, failedFiles.sum(), extractedCount / elapsed,
+                extractedChars.sum() * 2 / 1_000_000.0 / elapsed, workers,
+                seconds(extractNanos.sum()), seconds(extractBlockedNanos.sum()),
+                indexedDocuments, failedDocuments, batches, indexedDocuments / elapsed, seconds(sinkNanos),
+                workers * 2 - inFlight.availablePermits(), extracted.size());
+    }
+
+    private static double seconds(long nanos) {
+        return Math.max(nanos, 1) / 1_000_000_000.0;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
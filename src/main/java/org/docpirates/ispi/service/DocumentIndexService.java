@@ -1,17 +1,26 @@
 package org.docpirates.ispi.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch.core.CountRequest;
-import co.elastic.clients.elasticsearch.core.CountResponse;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.mapping.IndexOptions;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
 import co.elastic.clients.elasticsearch.core.IndexRequest;
 import co.elastic.clients.elasticsearch.core.IndexResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.HighlighterEncoder;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch._types.query_dsl.MultiMatchQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.dto.CursorPage;
+import org.docpirates.ispi.dto.DocumentDto;
 import org.docpirates.ispi.dto.DocumentForIndexing;
+import org.docpirates.ispi.dto.DocumentSearchHit;
 import org.docpirates.ispi.entity.Document;
 import org.docpirates.ispi.entity.SubjectArea;
 import org.docpirates.ispi.entity.User;
@@ -20,48 +29,54 @@ import org.docpirates.ispi.repository.DocumentRepository;
 import org.docpirates.ispi.repository.SubjectAreaRepository;
 import org.docpirates.ispi.repository.UserRepository;
 import org.docpirates.ispi.repository.WorkTypeRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DocumentIndexService {
 
+    private static final String INDEX_ALIAS = "doc_index";
+    private static final String INDEX_VERSION_PREFIX = "doc_index_v";
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int REACH_QUERY_TERMS = 250;
+    private static final int HIGHLIGHT_FRAGMENT_SIZE = 150;
+    private static final int HIGHLIGHT_FRAGMENTS = 3;
+    private static final int HIGHLIGHT_MAX_ANALYZED_OFFSET = 1_000_000;
+
     private final ElasticsearchClient client;
     private final Random random = new Random();
     private final WorkTypeRepository workTypeRepository;
     private final SubjectAreaRepository subjectAreaRepository;
     private final UserRepository userRepository;
     private final DocumentRepository documentRepository;
-
-    public List<DocumentForIndexing> readDocumentsFromDirectory(Path rootDir) throws IOException {
-        List<DocumentForIndexing> documents = new ArrayList<>();
-
-        Files.walk(rootDir)
-                .filter(Files::isRegularFile)
-                .forEach(file -> {
-                    try {
-                        String content = TextReader.getTextFromFile(file.toString());
-                        documents.add(new DocumentForIndexing(
-                                file.toString(),
-                                file.getFileName().toString(),
-                                content
-                        ));
-                    } catch (IOException e) {
-                        System.err.println("Cannot read file: " + file + " - " + e.getMessage());
-                    }
-                });
-
-        return documents;
-    }
-
-    public void generateDocumentsFromFiles(List<DocumentForIndexing> files) {
+    private final TextExtractionCache textExtractionCache;
+    private final SimilarDocumentsCache similarDocumentsCache;
+
+    @Value("${ispi.index.extract-workers:0}")
+    private int extractWorkers;
+    @Value("${ispi.index.bulk.batch-size:500}")
+    private int bulkBatchSize;
+    @Value("${ispi.index.bulk.batch-bytes:10485760}")
+    private long bulkBatchBytes;
+    @Value("${ispi.index.replicas:1}")
+    private int indexReplicas;
+    @Value("${ispi.index.refresh-interval:1s}")
+    private String indexRefreshInterval;
+
+    private final AtomicBoolean reindexRunning = new AtomicBoolean();
+    private final AtomicReference<String> buildingIndex = new AtomicReference<>();
+
+    public List<Document> generateDocumentsFromFiles(List<DocumentForIndexing> files) {
         List<WorkType> workTypes = workTypeRepository.findAll();
         List<SubjectArea> subjectAreas = subjectAreaRepository.findAll();
         List<User> users = userRepository.findAll();
@@ -69,6 +84,7 @@ public class DocumentIndexService {
         if (workTypes.isEmpty() || subjectAreas.isEmpty() || users.isEmpty())
             throw new IllegalStateException("Cannot load from tables: workTypes, subjectAreas or users");
 
+        List<Document> documents = new ArrayList<>(files.size());
         for (DocumentForIndexing file : files) {
             User author = users.get(random.nextInt(users.size()));
             WorkType workType = workTypes.get(random.nextInt(workTypes.size()));
@@ -85,8 +101,9 @@ public class DocumentIndexService {
                     .uploadedAt(generateRandomDateWithinLastMonth())
                     .author(author)
                     .build();
-            documentRepository.save(document);
+            documents.add(document);
         }
+        return documentRepository.saveAll(documents);
     }
 
     private LocalDateTime generateRandomDateWithinLastMonth() {
@@ -108,66 +125,246 @@ public class DocumentIndexService {
     }
 
 
-    public void indexDocuments(List<DocumentForIndexing> documents) {
-        generateDocumentsFromFiles(documents);
+    public void indexDirectory(Path rootDir) {
+        if (!reindexRunning.compareAndSet(false, true)) {
+            System.err.println("A reindex is already running, skipping " + rootDir);
+            return;
+        }
         try {
-            if (client.indices().exists(b -> b.index("doc_index")).value()) {
-                client.indices().delete(b -> b.index("doc_index"));
-                System.out.println("Deleted old index 'doc_index'");
-            }
+            String building = INDEX_VERSION_PREFIX + nextIndexVersion();
+            createBuildIndex(building);
+            buildingIndex.set(building);
+            rebuild(rootDir, building);
+        } catch (IOException e) {
+            System.err.println("Failed to create new index version: " + e.getMessage());
+        } finally {
+            buildingIndex.set(null);
+            reindexRunning.set(false);
+        }
+    }
 
-            client.indices().create(b -> b
-                    .index("doc_index")
-                    .mappings(mb -> mb
-                            .properties("path", p -> p.keyword(k -> k))
-                            .properties("filename", p -> p.text(t -> t))
-                            .properties("content", p -> p.text(t -> t))
+    private void rebuild(Path rootDir, String building) {
+        try {
+            DocumentIndexPipeline pipeline = new DocumentIndexPipeline(
+                    textExtractionCache, extractWorkers, bulkBatchSize, bulkBatchBytes,
+                    batch -> bulkIndex(building, generateDocumentsFromFiles(batch), batch));
+            pipeline.run(rootDir);
+
+            client.indices().putSettings(p -> p
+                    .index(building)
+                    .settings(st -> st
+                            .refreshInterval(t -> t.time(indexRefreshInterval))
+                            .numberOfReplicas(String.valueOf(indexReplicas))
                     )
             );
-            System.out.println("Created new index 'doc_index'");
-
-        } catch (IOException e) {
-            System.err.println("Failed to recreate index: " + e.getMessage());
-            return;
+            client.indices().refresh(r -> r.index(building));
+            swapAlias(building);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Reindex into '" + building + "' failed, keeping current index: " + e.getMessage());
+            buildingIndex.set(null);
+            deleteIndexQuietly(building);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Reindex into '" + building + "' interrupted, keeping current index");
+            buildingIndex.set(null);
+            deleteIndexQuietly(building);
         }
+    }
 
-        for (DocumentForIndexing doc : documents) {
+    private Set<String> indexVersions() throws IOException {
+        return client.indices().get(g -> g
+                .index(INDEX_VERSION_PREFIX + "*")
+                .allowNoIndices(true)
+        ).indices().keySet();
+    }
+
+    private int nextIndexVersion() throws IOException {
+        int latest = 0;
+        for (String version : indexVersions()) {
             try {
-                addDocument(doc);
-            } catch (IOException e) {
-                System.err.println("Failed to index document: " + doc.getFilename() + " - " + e.getMessage());
+                latest = Math.max(latest, Integer.parseInt(version.substring(INDEX_VERSION_PREFIX.length())));
+            } catch (NumberFormatException ignored) {
             }
         }
+        return latest + 1;
     }
 
-    public void addDocument(DocumentForIndexing document) throws IOException {
+    // Nobody searches the new index until the alias moves, so skip refreshes and replica writes while loading.
+    private void createBuildIndex(String index) throws IOException {
+        client.indices().create(b -> b
+                .index(index)
+                .settings(st -> st
+                        .refreshInterval(t -> t.time("-1"))
+                        .numberOfReplicas("0")
+                )
+                .mappings(mb -> mb
+                        .properties("path", p -> p.keyword(k -> k))
+                        .properties("filename", p -> p.text(t -> t))
+                        .properties("content", p -> p.text(t -> t.indexOptions(IndexOptions.Offsets)))
+                        .properties("workType", p -> p.keyword(k -> k))
+                        .properties("subjectArea", p -> p.keyword(k -> k))
+                        .properties("extension", p -> p.keyword(k -> k))
+                        .properties("uploadedAt", p -> p.date(d -> d))
+                        .properties("authorId", p -> p.keyword(k -> k))
+                )
+        );
+        System.out.println("Created new index '" + index + "'");
+    }
+
+    private void swapAlias(String index) throws IOException {
+        boolean aliasExists = client.indices().existsAlias(e -> e.name(INDEX_ALIAS)).value();
+        Set<String> previous = aliasExists
+                ? client.indices().getAlias(g -> g.name(INDEX_ALIAS)).aliases().keySet()
+                : Set.of();
+        boolean legacyIndex = !aliasExists && client.indices().exists(e -> e.index(INDEX_ALIAS)).value();
+
+        client.indices().updateAliases(u -> {
+            if (legacyIndex)
+                u.actions(a -> a.removeIndex(r -> r.index(INDEX_ALIAS)));
+            for (String old : previous)
+                u.actions(a -> a.remove(r -> r.index(old).alias(INDEX_ALIAS)));
+            return u.actions(a -> a.add(ad -> ad.index(index).alias(INDEX_ALIAS)));
+        });
+        System.out.println("Alias '" + INDEX_ALIAS + "' now points to '" + index + "'");
+        buildingIndex.set(null);
+        similarDocumentsCache.invalidateAll();
+
+        // Also drops versions left behind by reindexes that died before their swap.
+        try {
+            for (String old : indexVersions())
+                if (!old.equals(index))
+                    deleteIndexQuietly(old);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to list old index versions: " + e.getMessage());
+        }
+    }
+
+    private void deleteIndexQuietly(String index) {
+        try {
+            client.indices().delete(d -> d.index(index));
+            System.out.println("Deleted index '" + index + "'");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to delete index '" + index + "': " + e.getMessage());
+        }
+    }
+
+    // documents are the saved rows for files, in the same order.
+    private int bulkIndex(String index, List<Document> documents, List<DocumentForIndexing> files) throws IOException {
+        BulkRequest.Builder request = new BulkRequest.Builder().index(index);
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            String content = files.get(i).getContent();
+            request.operations(op -> op.index(idx -> idx
+                    .id(String.valueOf(document.getId()))
+                    .document(toSource(document, content))
+            ));
+        }
+
+        BulkResponse response = client.bulk(request.build());
+        if (!response.errors())
+            return documents.size();
+
+        int failed = 0;
+        for (BulkResponseItem item : response.items()) {
+            if (item.error() == null) continue;
+            failed++;
+            System.err.println("Failed to index document " + item.id() + ": " + item.error().reason());
+        }
+        return documents.size() - failed;
+    }
+
+    private static Map<String, Object> toSource(Document document, String content) {
         Map<String, Object> jsonMap = new HashMap<>();
-        jsonMap.put("path", document.getPath());
-        jsonMap.put("filename", document.getFilename());
-        jsonMap.put("content", document.getContent());
+        jsonMap.put("path", document.getDiskPath());
+        jsonMap.put("filename", document.getName());
+        jsonMap.put("content", content);
+        jsonMap.put("workType", document.getWorkType());
+        jsonMap.put("subjectArea", document.getSubjectArea());
+        jsonMap.put("extension", document.getExtension());
+        jsonMap.put("uploadedAt", document.getUploadedAt() != null ? document.getUploadedAt().toString() : null);
+        jsonMap.put("authorId", document.getAuthor() != null ? String.valueOf(document.getAuthor().getId()) : null);
+        return jsonMap;
+    }
 
+    public void addDocument(Document document, String content) throws IOException {
+        String id = String.valueOf(document.getId());
+        // Waiting for the refresh makes the document visible to more-like-this before the cache is invalidated.
         IndexRequest<Map<String, Object>> request = IndexRequest.of(i -> i
-                .index("doc_index")
-                .document(jsonMap)
+                .index(INDEX_ALIAS)
+                .id(id)
+                .document(toSource(document, content))
+                .refresh(Refresh.WaitFor)
         );
 
         IndexResponse response = client.index(request);
         System.out.println("Indexed document ID: " + response.id());
+
+        String building = buildingIndex.get();
+        if (building != null)
+            client.index(IndexRequest.of(i -> i
+                    .index(building)
+                    .id(id)
+                    .document(toSource(document, content))
+            ));
+
+        invalidateListsReachedBy(document.getId());
     }
 
-    public int getTotalDocumentCount() throws IOException {
-        CountRequest countRequest = CountRequest.of(c -> c.index("doc_index"));
-        CountResponse countResponse = client.count(countRequest);
-        System.out.println("Total document count: " + countResponse.count());
-        return (int) countResponse.count();
+    /*
+     * A cached list can only gain the new document if the document contains one of the terms its
+     * more-like-this query was built from, so only cached documents sharing a term with the new one are
+     * dropped. The overlap is looked up from the new document's top REACH_QUERY_TERMS terms; lists that
+     * share only its lower-weighted terms, and score drift from changed term statistics, stay until the TTL.
+     */
+    private void invalidateListsReachedBy(Long documentId) {
+        Set<Long> cached = similarDocumentsCache.documentIds();
+        if (cached.isEmpty())
+            return;
+        if (cached.size() > MAX_RESULT_WINDOW) {
+            similarDocumentsCache.invalidateAll();
+            return;
+        }
+        try {
+            SearchResponse<Void> response = client.search(s -> s
+                            .index(INDEX_ALIAS)
+                            .size(cached.size())
+                            .source(src -> src.fetch(false))
+                            .query(q -> q.bool(b -> b
+                                    .filter(f -> f.ids(i -> i.values(cached.stream().map(String::valueOf).toList())))
+                                    .must(m -> m.moreLikeThis(mlt -> mlt
+                                            .fields("filename", "content")
+                                            .like(like -> like
+                                                    .document(doc -> doc
+                                                            .index(INDEX_ALIAS)
+                                                            .id(String.valueOf(documentId))
+                                                    )
+                                            )
+                                            .minTermFreq(1)
+                                            .minDocFreq(1)
+                                            .maxQueryTerms(REACH_QUERY_TERMS)
+                                            .minimumShouldMatch("1")
+                                    ))
+                            )),
+                    Void.class
+            );
+            similarDocumentsCache.invalidate(response.hits().hits().stream()
+                    .map(hit -> parseDocumentId(hit.id()))
+                    .filter(Objects::nonNull)
+                    .toList());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot find cached lists reached by " + documentId + ", clearing similar cache - " + e.getMessage());
+            similarDocumentsCache.invalidateAll();
+        }
     }
 
-    public List<DocumentForIndexing> searchRelevantDocuments(String userQuery, int from, int to) throws IOException {
-        int maxDocs = getTotalDocumentCount();
+    // from + size beyond the index's max_result_window is rejected by Elasticsearch; deeper pages use the cursor.
+    public CursorPage<DocumentSearchHit> searchRelevantDocuments(String userQuery, int from, int to,
+                                                                 String cursor) throws IOException {
         if (from < 0) from = 0;
-        if (to > maxDocs) to = maxDocs;
-        if (from >= to) return List.of();
+        if (to > MAX_RESULT_WINDOW) to = MAX_RESULT_WINDOW;
+        if (from >= to) return new CursorPage<>(List.of(), null, null);
         int size = to - from;
+        List<FieldValue> searchAfter = cursor != null ? decodeSearchCursor(cursor) : null;
 
         Query multiMatchQuery = MultiMatchQuery.of(m -> m
                 .query(userQuery)
@@ -175,37 +372,70 @@ public class DocumentIndexService {
         )._toQuery();
 
         int finalFrom = from;
-        SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index("doc_index")
-                .from(finalFrom)
-                .size(size)
-                .query(multiMatchQuery)
-                .sort(srt -> srt
-                        .field(f -> f
-                                .field("_score")
-                                .order(co.elastic.clients.elasticsearch._types.SortOrder.Desc)
-                        )
-                )
-        );
+        SearchRequest searchRequest = SearchRequest.of(s -> {
+            s.index(INDEX_ALIAS)
+                    .size(size)
+                    .trackTotalHits(t -> t.enabled(true))
+                    .query(multiMatchQuery)
+                    .source(src -> src.filter(f -> f.includes("filename")))
+                    .highlight(h -> h
+                            .encoder(HighlighterEncoder.Html)
+                            .maxAnalyzedOffset(HIGHLIGHT_MAX_ANALYZED_OFFSET)
+                            .fields("content", hf -> hf
+                                    .fragmentSize(HIGHLIGHT_FRAGMENT_SIZE)
+                                    .numberOfFragments(HIGHLIGHT_FRAGMENTS)
+                            )
+                    )
+                    .sort(srt -> srt.score(sc -> sc.order(SortOrder.Desc)))
+                    .sort(srt -> srt.field(f -> f.field("path").order(SortOrder.Asc)));
+            if (searchAfter != null)
+                s.searchAfter(searchAfter);
+            else
+                s.from(finalFrom);
+            return s;
+        });
 
         SearchResponse<Map> searchResponse = client.search(searchRequest, Map.class);
-
-        return searchResponse.hits().hits().stream()
-                .map(Hit::source)
-                .filter(Objects::nonNull)
-                .map(source -> new DocumentForIndexing(
-                        (String) source.get("path"),
-                        (String) source.get("filename"),
-                        (String) source.get("content")
+        List<Hit<Map>> hits = searchResponse.hits().hits();
+
+        List<DocumentSearchHit> documents = hits.stream()
+                .filter(hit -> hit.source() != null)
+                .map(hit -> new DocumentSearchHit(
+                        parseDocumentId(hit.id()),
+                        (String) hit.source().get("filename"),
+                        hit.score(),
+                        hit.highlight().getOrDefault("content", List.of())
                 ))
                 .collect(Collectors.toList());
+        Long total = searchResponse.hits().total() != null ? searchResponse.hits().total().value() : null;
+        String nextCursor = hits.size() == size ? encodeSearchCursor(hits.get(hits.size() - 1).sort()) : null;
+        return new CursorPage<>(documents, total, nextCursor);
+    }
+
+    // Sort values of the last hit: its score and the path tiebreaker.
+    private static String encodeSearchCursor(List<FieldValue> sortValues) {
+        String raw = sortValues.get(0).doubleValue() + "\n" + sortValues.get(1).stringValue();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<FieldValue> decodeSearchCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('\n');
+            return List.of(
+                    FieldValue.of(Double.parseDouble(raw.substring(0, separator))),
+                    FieldValue.of(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
     }
 
     public boolean isSimilarityAboveThreshold(DocumentForIndexing doc1,
                                               DocumentForIndexing doc2,
                                               double thresholdPercent) {
-        Set<String> terms1 = extractTerms(doc1.getContent());
-        Set<String> terms2 = extractTerms(doc2.getContent());
+        Set<String> terms1 = TermExtractor.extractTerms(doc1.getContent());
+        Set<String> terms2 = TermExtractor.extractTerms(doc2.getContent());
         if (terms1.isEmpty() || terms2.isEmpty()) return false;
         Set<String> intersection = new HashSet<>(terms1);
         intersection.retainAll(terms2);
@@ -213,44 +443,29 @@ public class DocumentIndexService {
         return similarity >= thresholdPercent;
     }
 
-    private Set<String> extractTerms(String content) {
-        return Arrays.stream(content.toLowerCase().split("\\W+"))
-                .filter(term -> term.length() > 2)
-                .collect(Collectors.toSet());
+    public List<DocumentDto> findSimilarDocuments(Long documentId) throws IOException {
+        List<DocumentDto> cached = similarDocumentsCache.get(documentId);
+        if (cached != null)
+            return cached;
+        long generation = similarDocumentsCache.generation();
+        List<DocumentDto> similar = searchSimilarDocuments(documentId);
+        similarDocumentsCache.put(documentId, similar, generation);
+        return similar;
     }
 
-    public List<Map<String, Object>> findSimilarToDocumentByTitle(String title) throws IOException {
-        String index = "doc_index";
-
-        SearchResponse<Map> findDocResponse = client.search(
-                s -> s
-                        .index(index)
-                        .size(1)
-                        .query(q -> q
-                                .match(m -> m
-                                        .field("filename")
-                                        .query(title)
-                                )
-                        ),
-                Map.class
-        );
-
-        if (findDocResponse.hits().hits().isEmpty())
-            return List.of();
-
-        String docId = findDocResponse.hits().hits().get(0).id();
-
-        SearchResponse<Map> similarResponse = client.search(
+    private List<DocumentDto> searchSimilarDocuments(Long documentId) throws IOException {
+        SearchResponse<Void> similarResponse = client.search(
                 s -> s
-                        .index(index)
+                        .index(INDEX_ALIAS)
                         .size(30)
+                        .source(src -> src.fetch(false))
                         .query(q -> q
                                 .moreLikeThis(mlt -> mlt
                                         .fields("filename", "content")
                                         .like(like -> like
                                                 .document(doc -> doc
-                                                        .index(index)
-                                                        .id(docId)
+                                                        .index(INDEX_ALIAS)
+                                                        .id(String.valueOf(documentId))
                                                 )
                                         )
                                         .minTermFreq(1)
@@ -259,19 +474,31 @@ public class DocumentIndexService {
                                 )
                         )
                         .sort(st -> st
-                                .score(sc -> sc.order(co.elastic.clients.elasticsearch._types.SortOrder.Desc))
+                                .score(sc -> sc.order(SortOrder.Desc))
                         ),
-                Map.class
+                Void.class
         );
 
-        List<Map<String, Object>> results = new ArrayList<>();
-        for (Hit<Map> hit : similarResponse.hits().hits()) {
-            Map<String, Object> doc = new HashMap<>(hit.source());
-            doc.remove("content");
-            results.add(doc);
-        }
+        List<Long> ids = similarResponse.hits().hits().stream()
+                .map(hit -> parseDocumentId(hit.id()))
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, Document> documents = documentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Document::getId, d -> d));
+        return ids.stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .map(DocumentDto::from)
+                .toList();
+    }
 
-        return results;
+    // Documents indexed before ids were tied to Document rows carry generated ids until the next reindex.
+    private static Long parseDocumentId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
 }
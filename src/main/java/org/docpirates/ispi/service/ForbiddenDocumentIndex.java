@@ -0,0 +1,88 @@
+package org.docpirates.ispi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.entity.ForbiddenDocument;
+import org.docpirates.ispi.repository.ForbiddenDocumentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@RequiredArgsConstructor
+public class ForbiddenDocumentIndex {
+
+    private final ForbiddenDocumentRepository forbiddenDocumentRepository;
+    private final TextExtractionCache textExtractionCache;
+    private final Map<String, Integer> dictionary = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTermId = new AtomicInteger();
+    private final Map<Long, int[]> documents = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadForbiddenDocuments() {
+        for (ForbiddenDocument forbidden : forbiddenDocumentRepository.findAll()) {
+            try {
+                add(forbidden.getId(), textExtractionCache.extractTerms(forbidden.getDiskPath()));
+            } catch (IOException e) {
+                System.err.println("Cannot read forbidden file: " + forbidden.getDiskPath() + " - " + e.getMessage());
+            }
+        }
+        System.out.println("Loaded " + documents.size() + " forbidden documents, " + dictionary.size() + " distinct terms");
+    }
+
+    public void add(Long documentId, Set<String> terms) {
+        int[] termIds = new int[terms.size()];
+        int i = 0;
+        for (String term : terms)
+            termIds[i++] = dictionary.computeIfAbsent(term, t -> nextTermId.getAndIncrement());
+        Arrays.sort(termIds);
+        documents.put(documentId, termIds);
+    }
+
+    // Same measure as DocumentIndexService.isSimilarityAboveThreshold: |A ∩ B| / min(|A|, |B|).
+    public boolean hasSimilar(Set<String> terms, double thresholdPercent) {
+        if (terms.isEmpty()) return false;
+        int[] known = toKnownTermIds(terms);
+        for (int[] forbidden : documents.values()) {
+            if (forbidden.length == 0) continue;
+            int intersection = intersectionSize(known, forbidden);
+            double similarity = 100.0 * intersection / Math.min(terms.size(), forbidden.length);
+            if (similarity >= thresholdPercent)
+                return true;
+        }
+        return false;
+    }
+
+    private int[] toKnownTermIds(Set<String> terms) {
+        int[] termIds = new int[terms.size()];
+        int count = 0;
+        for (String term : terms) {
+            Integer id = dictionary.get(term);
+            if (id != null)
+                termIds[count++] = id;
+        }
+        int[] known = Arrays.copyOf(termIds, count);
+        Arrays.sort(known);
+        return known;
+    }
+
+    private static int intersectionSize(int[] a, int[] b) {
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+}
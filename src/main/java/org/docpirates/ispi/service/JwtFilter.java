@@ -1,15 +1,19 @@
 package org.docpirates.ispi.service;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.entity.User;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -18,8 +22,11 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private static final String AUTHENTICATED_TOKEN = JwtFilter.class.getName() + ".token";
+    private static final String AUTHENTICATED_USER = JwtFilter.class.getName() + ".user";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserCache userCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -28,22 +35,44 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
             String token = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(token);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                var userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtUtil.validateToken(token)) {
+            User user = resolveUser(token);
+            if (user != null) {
+                try {
+                    var userDetails = CustomUserDetailsService.toUserDetails(user);
                     var authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    request.setAttribute(AUTHENTICATED_TOKEN, token);
+                    request.setAttribute(AUTHENTICATED_USER, user);
+                } catch (UsernameNotFoundException ignored) {
                 }
             }
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private User resolveUser(String token) {
+        try {
+            String username = verifiedTokenCache.verify(token).subject();
+            return username != null ? userCache.findByEmail(username) : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** The user this request's filter pass already resolved for {@code token}, or null. */
+    public static User authenticatedUser(String token) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return null;
+        HttpServletRequest request = attributes.getRequest();
+        if (!token.equals(request.getAttribute(AUTHENTICATED_TOKEN)))
+            return null;
+        return (User) request.getAttribute(AUTHENTICATED_USER);
+    }
 }
@@ -0,0 +1,93 @@
+package org.docpirates.ispi.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+public class MinHash {
+
+    public static final int NUM_HASHES = 128;
+    public static final int BANDS = 32;
+    public static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+
+    // Seeds must stay fixed: signatures are persisted next to the documents.
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        Random random = new Random(0x15B1DA7AL);
+        for (int i = 0; i < NUM_HASHES; i++)
+            SEEDS[i] = random.nextLong();
+    }
+
+    public static int[] signature(Set<String> terms) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String term : terms) {
+            long termHash = hashTerm(term);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int value = (int) (mix(termHash ^ SEEDS[i]) >>> 33);
+                if (value < signature[i])
+                    signature[i] = value;
+            }
+        }
+        return signature;
+    }
+
+    public static double estimateJaccard(int[] signature1, int[] signature2) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (signature1[i] == signature2[i])
+                equal++;
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    // Same measure as DocumentIndexService.isSimilarityAboveThreshold: |A ∩ B| / min(|A|, |B|),
+    // with |A ∩ B| recovered from the Jaccard estimate and the set sizes.
+    public static double estimateOverlapPercent(int[] signature1, int termCount1,
+                                                int[] signature2, int termCount2) {
+        if (termCount1 == 0 || termCount2 == 0) return 0.0;
+        double jaccard = estimateJaccard(signature1, signature2);
+        double intersection = jaccard * (termCount1 + termCount2) / (1.0 + jaccard);
+        return Math.min(100.0, 100.0 * intersection / Math.min(termCount1, termCount2));
+    }
+
+    public static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++)
+                key = mix(key * 31 + signature[band * ROWS_PER_BAND + row]);
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    public static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static int[] fromBytes(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    private static long hashTerm(String term) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
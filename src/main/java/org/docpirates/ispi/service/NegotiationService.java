@@ -0,0 +1,172 @@
+package org.docpirates.ispi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.dto.OfferRequestDto;
+import org.docpirates.ispi.entity.*;
+import org.docpirates.ispi.enums.RespondentType;
+import org.docpirates.ispi.repository.NegotiationThreadRepository;
+import org.docpirates.ispi.repository.ResponseRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every response belongs to the thread of the teacher who opened its chain on the post. The thread row
+ * tracks the newest response (the head) and the newest one from each side, so checks against the
+ * "latest" response never have to walk the chain.
+ * <p>
+ * Writers never lock a thread up front: every change bumps its version, and a change made against a
+ * head that has moved in the meantime fails with an optimistic locking exception instead of forking
+ * the chain.
+ */
+@Service
+@RequiredArgsConstructor
+public class NegotiationService {
+
+    private static final String INSERT_THREAD = """
+            INSERT INTO negotiation_thread (post_id, teacher_id, version)
+            SELECT p.id, ?, 0 FROM post p WHERE p.id = ?
+            ON CONFLICT (post_id, teacher_id) DO NOTHING
+            """;
+
+    private static final String INSERT_OFFER = """
+            WITH offer AS (
+                INSERT INTO response (creation_date, price, post_id, respondent_id, respondent_type, thread_id)
+                SELECT ?, ?, t.post_id, t.teacher_id, 'TEACHER', t.id
+                FROM negotiation_thread t
+                WHERE t.post_id = ? AND t.teacher_id = ?
+                RETURNING id, thread_id, price
+            )
+            UPDATE negotiation_thread t
+            SET head_response_id = o.id, last_teacher_response_id = o.id, current_price = o.price,
+                updated_at = ?, version = t.version + 1
+            FROM offer o
+            WHERE t.id = o.thread_id
+            """;
+
+    // Response rows go in the same statement; the foreign key to the thread is checked at its end.
+    private static final String DELETE_THREADS = """
+            WITH withdrawn AS (
+                SELECT id FROM negotiation_thread WHERE teacher_id = ? AND (CAST(? AS bigint) IS NULL OR post_id = ?)
+            ), responses AS (
+                DELETE FROM response r USING withdrawn w WHERE r.thread_id = w.id
+            )
+            DELETE FROM negotiation_thread t USING withdrawn w WHERE t.id = w.id
+            """;
+
+    private static final String DELETE_UNTHREADED_OFFERS = """
+            DELETE FROM response
+            WHERE respondent_id = ? AND thread_id IS NULL AND (CAST(? AS bigint) IS NULL OR post_id = ?)
+            """;
+
+    private final NegotiationThreadRepository negotiationThreadRepository;
+    private final ResponseRepository responseRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public Response save(Response response) {
+        return append(threadFor(response), response);
+    }
+
+    /**
+     * Saves a counter-offer to {@code target}, or returns null when the target is not the head of a thread
+     * the user takes part in. Only the thread's teacher and the post's student can answer.
+     */
+    @Transactional
+    public Response respond(Response target, User user, RespondentType respondentType, BigDecimal price) {
+        if (target.getThreadId() == null)
+            return null;
+        NegotiationThread thread = negotiationThreadRepository.findById(target.getThreadId()).orElse(null);
+        if (thread == null || !target.getId().equals(thread.getHeadResponseId()))
+            return null;
+        boolean participant = respondentType == RespondentType.TEACHER
+                ? thread.getTeacher().getId().equals(user.getId())
+                : target.getPost().getStudent().getId().equals(user.getId());
+        if (!participant)
+            return null;
+
+        return append(thread, Response.builder()
+                .creationDate(LocalDateTime.now())
+                .price(price)
+                .respondent(user)
+                .respondentType(respondentType)
+                .post(target.getPost())
+                .prevResponseId(target.getId())
+                .build());
+    }
+
+    /** Opens or restarts the teacher's thread on every listed post; returns the ids of posts that do not exist. */
+    @Transactional
+    public List<Long> openOffers(Long teacherId, List<OfferRequestDto> offers) {
+        jdbcTemplate.batchUpdate(INSERT_THREAD, offers, offers.size(), (ps, offer) -> {
+            ps.setLong(1, teacherId);
+            ps.setLong(2, offer.getPostId());
+        });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] updated = jdbcTemplate.batchUpdate(INSERT_OFFER, offers, offers.size(), (ps, offer) -> {
+            ps.setTimestamp(1, now);
+            ps.setBigDecimal(2, offer.getPrice());
+            ps.setLong(3, offer.getPostId());
+            ps.setLong(4, teacherId);
+            ps.setTimestamp(5, now);
+        });
+
+        List<Long> missingPosts = new ArrayList<>();
+        for (int i = 0; i < offers.size(); i++)
+            if (updated[0][i] == 0)
+                missingPosts.add(offers.get(i).getPostId());
+        return missingPosts;
+    }
+
+    /**
+     * Ends the teacher's negotiation on one post, or on every post when postId is null. The whole thread goes,
+     * student replies included, since they only answer the teacher's offers; returns the number of posts affected.
+     */
+    @Transactional
+    public int withdraw(Long teacherId, Long postId) {
+        jdbcTemplate.update(DELETE_UNTHREADED_OFFERS, teacherId, postId, postId);
+        return jdbcTemplate.update(DELETE_THREADS, teacherId, postId, postId);
+    }
+
+    @Transactional
+    public void deleteAllByPostId(Long postId) {
+        responseRepository.deleteAllByPostId(postId);
+        negotiationThreadRepository.deleteAllByPostId(postId);
+    }
+
+    private Response append(NegotiationThread thread, Response response) {
+        response.setThreadId(thread.getId());
+        responseRepository.save(response);
+
+        thread.setHeadResponseId(response.getId());
+        thread.setCurrentPrice(response.getPrice());
+        if (response.getRespondentType() == RespondentType.TEACHER)
+            thread.setLastTeacherResponseId(response.getId());
+        else
+            thread.setLastStudentResponseId(response.getId());
+        thread.setUpdatedAt(LocalDateTime.now());
+        negotiationThreadRepository.saveAndFlush(thread);
+        return response;
+    }
+
+    private NegotiationThread threadFor(Response response) {
+        if (response.getPrevResponseId() != null)
+            return responseRepository.findThreadIdById(response.getPrevResponseId())
+                    .flatMap(negotiationThreadRepository::findById)
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Response " + response.getPrevResponseId() + " is not part of a negotiation"));
+
+        if (!(response.getRespondent() instanceof Teacher teacher))
+            throw new IllegalArgumentException("Only teachers can open a negotiation");
+        Long postId = response.getPost().getId();
+        negotiationThreadRepository.insertIfAbsent(postId, teacher.getId());
+        return negotiationThreadRepository.findByPostIdAndTeacherId(postId, teacher.getId()).orElseThrow();
+    }
+}
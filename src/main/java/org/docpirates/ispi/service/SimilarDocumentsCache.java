@@ -0,0 +1,63 @@
+package org.docpirates.ispi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.docpirates.ispi.dto.CacheStatsDto;
+import org.docpirates.ispi.dto.DocumentDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class SimilarDocumentsCache {
+
+    private final Cache<Long, List<DocumentDto>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SimilarDocumentsCache(@Value("${ispi.similar-cache.max-size:10000}") long maxSize,
+                                 @Value("${ispi.similar-cache.ttl:30m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public List<DocumentDto> get(Long documentId) {
+        return cache.getIfPresent(documentId);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // A list computed before an invalidation may already miss a new document, so it is not kept.
+    public void put(Long documentId, List<DocumentDto> similar, long generation) {
+        cache.put(documentId, similar);
+        if (this.generation.get() != generation)
+            cache.invalidate(documentId);
+    }
+
+    public Set<Long> documentIds() {
+        return Set.copyOf(cache.asMap().keySet());
+    }
+
+    public void invalidate(Collection<Long> documentIds) {
+        generation.incrementAndGet();
+        cache.invalidateAll(documentIds);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.from(cache);
+    }
+}
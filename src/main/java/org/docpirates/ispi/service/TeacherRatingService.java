@@ -0,0 +1,44 @@
+package org.docpirates.ispi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.docpirates.ispi.entity.Deal;
+import org.docpirates.ispi.repository.DealRepository;
+import org.docpirates.ispi.repository.TeacherRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Keeps Teacher.ratingSum / ratingCount in step with deal feedback; a feedback of 0 means "not rated". */
+@Service
+@RequiredArgsConstructor
+public class TeacherRatingService {
+
+    private final DealRepository dealRepository;
+    private final TeacherRepository teacherRepository;
+
+    /** Returns false when the deal's feedback was changed by someone else since it was loaded. */
+    @Transactional
+    public boolean leaveFeedback(Deal deal, int feedback) {
+        int previous = deal.getStudentFeedback();
+        if (dealRepository.updateStudentFeedback(deal.getId(), previous, feedback) == 0)
+            return false;
+        teacherRepository.addFeedback(deal.getTeacher().getId(),
+                rated(feedback) - rated(previous), counted(feedback) - counted(previous));
+        deal.setStudentFeedback(feedback);
+        return true;
+    }
+
+    @Transactional
+    public void deleteDeal(Deal deal) {
+        if (counted(deal.getStudentFeedback()) > 0)
+            teacherRepository.addFeedback(deal.getTeacher().getId(), -rated(deal.getStudentFeedback()), -1);
+        dealRepository.delete(deal);
+    }
+
+    private static int rated(int feedback) {
+        return Math.max(feedback, 0);
+    }
+
+    private static int counted(int feedback) {
+        return feedback > 0 ? 1 : 0;
+    }
+}
@@ -0,0 +1,44 @@
+package org.docpirates.ispi.service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class TermExtractor {
+
+    public static Set<String> extractTerms(String content) {
+        TermCollector collector = new TermCollector();
+        collector.accept(content);
+        return collector.getTerms();
+    }
+
+    /**
+     * Incremental equivalent of {@code content.toLowerCase().split("\\W+")} keeping terms longer
+     * than two characters. Words split across chunk boundaries are stitched back together.
+     */
+    public static class TermCollector implements TextReader.TextChunkConsumer {
+        private final Set<String> terms = new HashSet<>();
+        private final StringBuilder current = new StringBuilder();
+
+        @Override
+        public void accept(CharSequence chunk) {
+            for (int i = 0; i < chunk.length(); i++) {
+                char c = Character.toLowerCase(chunk.charAt(i));
+                if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_')
+                    current.append(c);
+                else
+                    flushTerm();
+            }
+        }
+
+        public Set<String> getTerms() {
+            flushTerm();
+            return terms;
+        }
+
+        private void flushTerm() {
+            if (current.length() > 2)
+                terms.add(current.toString());
+            current.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.docpirates.ispi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class TextExtractionCache {
+
+    private final Path cacheDir;
+    private final long maxHeapChars;
+    private final LinkedHashMap<String, String> heapCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long heapChars;
+
+    public TextExtractionCache(@Value("${ispi.text-cache.dir:text_cache}") String cacheDir,
+                               @Value("${ispi.text-cache.max-heap-chars:50000000}") long maxHeapChars) {
+        this.cacheDir = Path.of(cacheDir, "v" + TextReader.EXTRACTOR_VERSION);
+        this.maxHeapChars = maxHeapChars;
+    }
+
+    // Goes through the same streaming extractor as streamText, so both see the same cache file contents.
+    public String getText(String pathToFile) throws IOException {
+        String key = cacheKey(pathToFile);
+
+        String text = getFromHeap(key);
+        if (text != null)
+            return text;
+
+        Path cached = cachedFile(key);
+        String extracted;
+        if (Files.exists(cached)) {
+            extracted = readCompressed(cached);
+        } else {
+            StringBuilder builder = new StringBuilder();
+            writeCompressed(cached, writer -> TextReader.streamTextFromFile(pathToFile, chunk -> {
+                writer.append(chunk);
+                builder.append(chunk);
+            }));
+            extracted = builder.toString();
+        }
+        putToHeap(key, extracted);
+        return extracted;
+    }
+
+    // Never materializes the whole text; a cache miss is extracted and compressed to disk chunk by chunk.
+    public void streamText(String pathToFile, TextReader.TextChunkConsumer consumer) throws IOException {
+        String key = cacheKey(pathToFile);
+
+        String text = getFromHeap(key);
+        if (text != null) {
+            consumer.accept(text);
+            return;
+        }
+
+        Path cached = cachedFile(key);
+        if (Files.exists(cached)) {
+            streamCompressed(cached, consumer);
+            return;
+        }
+        writeCompressed(cached, writer -> TextReader.streamTextFromFile(pathToFile, chunk -> {
+            writer.append(chunk);
+            consumer.accept(chunk);
+        }));
+    }
+
+    public Set<String> extractTerms(String pathToFile) throws IOException {
+        TermExtractor.TermCollector collector = new TermExtractor.TermCollector();
+        streamText(pathToFile, collector);
+        return collector.getTerms();
+    }
+
+    private String cacheKey(String pathToFile) throws IOException {
+        return TextReader.getFileExtension(pathToFile) + "-" + sha256(Path.of(pathToFile));
+    }
+
+    private Path cachedFile(String key) {
+        return cacheDir.resolve(key.substring(key.length() - 2)).resolve(key + ".txt.gz");
+    }
+
+    private synchronized String getFromHeap(String key) {
+        return heapCache.get(key);
+    }
+
+    private synchronized void putToHeap(String key, String text) {
+        if (text.length() > maxHeapChars) return;
+        String previous = heapCache.put(key, text);
+        if (previous != null)
+            heapChars -= previous.length();
+        heapChars += text.length();
+
+        Iterator<Map.Entry<String, String>> eldest = heapCache.entrySet().iterator();
+        while (heapChars > maxHeapChars && eldest.hasNext()) {
+            heapChars -= eldest.next().getValue().length();
+            eldest.remove();
+        }
+    }
+
+    private static String readCompressed(Path file) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8)) {
+            StringWriter text = new StringWriter();
+            reader.transferTo(text);
+            return text.toString();
+        }
+    }
+
+    private static void streamCompressed(Path file, TextReader.TextChunkConsumer consumer) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1)
+                consumer.accept(CharBuffer.wrap(buffer, 0, read));
+        }
+    }
+
+    private static void writeCompressed(Path file, TextWriterAction action) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), "text", ".tmp");
+        try (Writer writer = new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8)) {
+            action.write(writer);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @FunctionalInterface
+    private interface TextWriterAction {
+        void write(Writer writer) throws IOException;
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
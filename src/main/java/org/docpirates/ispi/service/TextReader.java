@@ -3,7 +3,9 @@ package org.docpirates.ispi.service;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
@@ -14,7 +16,12 @@ import org.w3c.dom.NodeList;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -22,6 +29,19 @@ import java.util.regex.Pattern;
 
 public class TextReader {
 
+    public static final int EXTRACTOR_VERSION = 2;
+    private static final long PDF_MAIN_MEMORY_BYTES = 16L * 1024 * 1024;
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Receives extracted text piece by piece (a page, a paragraph, a line or a buffer).
+     * A chunk is only valid during the call and may end in the middle of a word.
+     */
+    @FunctionalInterface
+    public interface TextChunkConsumer {
+        void accept(CharSequence chunk) throws IOException;
+    }
+
     public static String getFileExtension(String pathToFile) {
         int index = pathToFile.lastIndexOf(".");
         if (index > 0) return pathToFile.substring(index + 1).toLowerCase();
@@ -120,7 +140,7 @@ public class TextReader {
     public static String getTextFromCSV(String pathToFile) throws IOException {
         StringBuilder text = new StringBuilder();
         try (FileReader reader = new FileReader(pathToFile)) {
-            CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader());
+            CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build());
             for (CSVRecord record : csvParser) {
                 for (String field : record)
                     text.append(field).append(" ");
@@ -146,6 +166,115 @@ public class TextReader {
         };
     }
 
+    public static void streamTextFromPDF(String pathToFile, TextChunkConsumer consumer) throws IOException {
+        try (PDDocument document = PDDocument.load(new File(pathToFile), MemoryUsageSetting.setupMixed(PDF_MAIN_MEMORY_BYTES))) {
+            StringWriter page = new StringWriter();
+            PDFTextStripper stripper = new PDFTextStripper() {
+                @Override
+                protected void endPage(PDPage pdPage) throws IOException {
+                    super.endPage(pdPage);
+                    consumer.accept(page.toString());
+                    page.getBuffer().setLength(0);
+                }
+            };
+            stripper.writeText(document, page);
+            if (page.getBuffer().length() > 0)
+                consumer.accept(page.toString());
+        }
+    }
+
+    public static void streamTextFromDocx(String pathToFile, TextChunkConsumer consumer) throws IOException {
+        try (FileInputStream fis = new FileInputStream(pathToFile);
+             XWPFDocument document = new XWPFDocument(fis)) {
+            for (XWPFParagraph paragraph : document.getParagraphs())
+                consumer.accept(paragraph.getText() + "\n");
+        }
+    }
+
+    public static void streamTextFromTxt(String pathToFile, TextChunkConsumer consumer) throws IOException {
+        File file = new File(pathToFile);
+        if (!file.exists())
+            throw new IOException("File does not exist: " + pathToFile);
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[CHUNK_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) != -1)
+                consumer.accept(CharBuffer.wrap(buffer, 0, read));
+        }
+    }
+
+    public static void streamTextFromFB2(String pathToFile, TextChunkConsumer consumer) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(pathToFile))) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            StringBuilder paragraph = new StringBuilder();
+            int bodyDepth = 0;
+            int paragraphDepth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if ("body".equals(reader.getLocalName())) bodyDepth++;
+                        else if (bodyDepth > 0 && "p".equals(reader.getLocalName())) paragraphDepth++;
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (paragraphDepth > 0) paragraph.append(reader.getText());
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if ("body".equals(reader.getLocalName())) bodyDepth--;
+                        else if (paragraphDepth > 0 && "p".equals(reader.getLocalName()) && --paragraphDepth == 0) {
+                            consumer.accept(paragraph.append("\n"));
+                            paragraph.setLength(0);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot parse FB2 file: " + pathToFile, e);
+        }
+    }
+
+    public static void streamTextFromSGM(String pathToFile, TextChunkConsumer consumer) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(pathToFile))) {
+            String line;
+            Pattern tagPattern = Pattern.compile("<[^>]+>");
+            while ((line = reader.readLine()) != null)
+                consumer.accept(tagPattern.matcher(line).replaceAll("").trim() + "\n");
+        }
+    }
+
+    public static void streamTextFromCSV(String pathToFile, TextChunkConsumer consumer) throws IOException {
+        try (FileReader reader = new FileReader(pathToFile);
+             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build())) {
+            StringBuilder line = new StringBuilder();
+            for (CSVRecord record : csvParser) {
+                for (String field : record)
+                    line.append(field).append(" ");
+                consumer.accept(line.append("\n"));
+                line.setLength(0);
+            }
+        }
+    }
+
+    public static void streamTextFromFile(String pathToFile, TextChunkConsumer consumer) throws IOException {
+        String fileExtension = getFileExtension(pathToFile);
+        switch (fileExtension) {
+            case "txt" -> streamTextFromTxt(pathToFile, consumer);
+            case "pdf" -> streamTextFromPDF(pathToFile, consumer);
+            case "docx" -> streamTextFromDocx(pathToFile, consumer);
+            case "fb2" -> streamTextFromFB2(pathToFile, consumer);
+            case "sgm" -> streamTextFromSGM(pathToFile, consumer);
+            case "csv" -> streamTextFromCSV(pathToFile, consumer);
+            default -> System.err.println("Unsupported file type: " + fileExtension);
+        }
+    }
+
     /*
     public static String getTextFromDoc(String pathToFile) throws IOException {
         File file = new File(pathToFile);
@@ -0,0 +1,43 @@
+package org.docpirates.ispi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.docpirates.ispi.dto.CacheStatsDto;
+import org.docpirates.ispi.entity.User;
+import org.docpirates.ispi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Holds detached User rows by email; every code path that changes a user's email, subscription or existence invalidates it.
+@Service
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> cache;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${ispi.user-cache.max-size:10000}") long maxSize,
+                     @Value("${ispi.user-cache.ttl:60s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public User findByEmail(String email) {
+        return cache.get(email, e -> userRepository.findByEmail(e).orElse(null));
+    }
+
+    public void invalidate(String email) {
+        if (email != null)
+            cache.invalidate(email);
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.from(cache);
+    }
+}
@@ -0,0 +1,76 @@
+package org.docpirates.ispi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.docpirates.ispi.dto.CacheStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+// Tokens are keyed by their SHA-256 so the cache never holds usable bearer credentials.
+@Service
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, JwtUtil.ParsedToken> cache;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              @Value("${ispi.token-cache.max-size:50000}") long maxSize,
+                              @Value("${ispi.token-cache.max-ttl:1h}") Duration maxTtl) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, JwtUtil.ParsedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtUtil.ParsedToken token, long currentTime) {
+                        if (token.expiresAt() == null)
+                            return maxTtl.toNanos();
+                        Duration remaining = Duration.between(Instant.now(), token.expiresAt());
+                        return Math.max(0, Math.min(remaining.toNanos(), maxTtl.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtUtil.ParsedToken token,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtUtil.ParsedToken token,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /** Same contract as {@link JwtUtil#parse}: throws JwtException for a token that does not verify. */
+    public JwtUtil.ParsedToken verify(String token) {
+        return cache.get(sha256(token), key -> jwtUtil.parse(token));
+    }
+
+    public void invalidateSubject(String subject) {
+        cache.asMap().values().removeIf(token -> subject.equals(token.subject()));
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.from(cache);
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
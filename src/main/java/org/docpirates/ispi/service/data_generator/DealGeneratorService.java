@@ -8,6 +8,7 @@ import org.docpirates.ispi.enums.RespondentType;
 import org.docpirates.ispi.repository.DealRepository;
 import org.docpirates.ispi.repository.PostRepository;
 import org.docpirates.ispi.repository.ResponseRepository;
+import org.docpirates.ispi.repository.TeacherRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,6 +21,7 @@ public class DealGeneratorService {
     private final PostRepository postRepository;
     private final ResponseRepository responseRepository;
     private final DealRepository dealRepository;
+    private final TeacherRepository teacherRepository;
 
     public void generateDeals(int count) {
         List<Response> responses = responseRepository.findAll();
@@ -56,5 +58,6 @@ public class DealGeneratorService {
                     .build();
             dealRepository.save(deal);
         }
+        teacherRepository.recalculateRatings();
     }
 }
@@ -6,8 +6,8 @@ import org.docpirates.ispi.enums.RespondentType;
 import org.docpirates.ispi.entity.Response;
 import org.docpirates.ispi.entity.Teacher;
 import org.docpirates.ispi.repository.PostRepository;
-import org.docpirates.ispi.repository.ResponseRepository;
 import org.docpirates.ispi.repository.TeacherRepository;
+import org.docpirates.ispi.service.NegotiationService;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -20,7 +20,7 @@ import java.util.Random;
 @RequiredArgsConstructor
 public class ResponseGeneratorService {
 
-    private final ResponseRepository responseRepository;
+    private final NegotiationService negotiationService;
     private final TeacherRepository teacherRepository;
     private final PostRepository postRepository;
 
@@ -73,7 +73,7 @@ public class ResponseGeneratorService {
                                     : RespondentType.STUDENT)
                             .prevResponseId(previousResponseId)
                             .build();
-                    responseRepository.save(response);
+                    negotiationService.save(response);
                     previousResponseId = response.getId();
                 }
             }
@@ -104,7 +104,6 @@ public class UserGeneratorService {
                                     .lastActivationDate(activationDate)
                                     .bankCardNumber(rawBankCardNumber)
                                     .description("Expert in " + (i % 5))
-                                    .rating(0f)
                                     .build();
                             teacherRepository.save(teacher);
                         }
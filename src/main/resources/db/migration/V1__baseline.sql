@@ -0,0 +1,306 @@
+-- Baseline: the schema Hibernate generated for the entities before Flyway took over.
+-- Databases created by ddl-auto=update are baselined at this version and skip it.
+
+create table "user" (
+    id bigint generated by default as identity,
+    last_activation_date timestamp(6),
+    subscription_id bigint,
+    bank_card_number varchar(255) not null unique,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    phone_number varchar(255) not null unique,
+    pib varchar(255) not null,
+    primary key (id)
+);
+
+create table complaint (
+    creation_date timestamp(6),
+    deal_id bigint not null,
+    id bigint generated by default as identity,
+    moderator_id bigint,
+    plaintiff_id bigint not null,
+    description varchar(255),
+    status varchar(255),
+    primary key (id)
+);
+
+create table deal (
+    price numeric(38,2) not null,
+    status smallint not null check (status between 0 and 1),
+    student_feedback integer not null,
+    id bigint generated by default as identity,
+    post_id bigint unique,
+    "teacher_id" bigint,
+    primary key (id)
+);
+
+create table document (
+    "author_id" bigint,
+    id bigint generated by default as identity,
+    uploaded_at timestamp(6),
+    dtype varchar(31) not null,
+    disk_path varchar(255),
+    extension varchar(255),
+    name varchar(255),
+    subject_area varchar(255),
+    work_type varchar(255),
+    primary key (id)
+);
+
+create table document_feedback (
+    stars integer not null,
+    created_at timestamp(6) not null,
+    document_id bigint not null,
+    id bigint generated by default as identity,
+    "user_id" bigint not null,
+    primary key (id)
+);
+
+create table document_complaint (
+    created_at timestamp(6),
+    document_id bigint not null,
+    id bigint generated by default as identity,
+    plaintiff_id bigint not null,
+    message varchar(255),
+    primary key (id)
+);
+
+create table institution (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table moderator (
+    "id" bigint not null,
+    primary key ("id")
+);
+
+create table post (
+    initial_price numeric(38,2) not null,
+    status smallint not null check (status between 0 and 1),
+    creation_date timestamp(6) not null,
+    id bigint generated by default as identity,
+    institution_id bigint not null,
+    student_id bigint not null,
+    subject_area_id bigint not null,
+    work_type_id bigint not null,
+    description varchar(255) not null,
+    primary key (id)
+);
+
+create table post_error (
+    contact_error_status smallint check (contact_error_status between 0 and 2),
+    existing_post boolean not null,
+    initial_price numeric(38,2),
+    creation_date timestamp(6),
+    id bigint generated by default as identity,
+    post_id bigint unique,
+    "student_id" bigint,
+    description varchar(255),
+    post_description varchar(255),
+    subject_area varchar(255),
+    university varchar(255),
+    work_type varchar(255),
+    primary key (id)
+);
+
+create table profile_error (
+    contact_error_status smallint check (contact_error_status between 0 and 2),
+    creation_date timestamp(6),
+    id bigint generated by default as identity,
+    profile_id bigint not null,
+    description varchar(255),
+    email varchar(255),
+    password varchar(255),
+    phone_number varchar(255),
+    pib varchar(255),
+    role varchar(255),
+    user_description varchar(255),
+    primary key (id)
+);
+
+create table response (
+    price numeric(38,2),
+    creation_date timestamp(6),
+    id bigint generated by default as identity,
+    post_id bigint,
+    prev_response_id bigint,
+    "respondent_id" bigint,
+    respondent_type varchar(255) check (respondent_type in ('TEACHER','STUDENT')),
+    primary key (id)
+);
+
+create table student (
+    "id" bigint not null,
+    primary key ("id")
+);
+
+create table subject_area (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table subscription (
+    price numeric(38,2) not null,
+    id bigint generated by default as identity,
+    description varchar(255),
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table teacher (
+    rating float4,
+    "id" bigint not null,
+    description varchar(255),
+    primary key ("id")
+);
+
+create table user_downloads (
+    document_id bigint not null,
+    "user_id" bigint not null,
+    primary key (document_id, "user_id")
+);
+
+create table user_favorites (
+    document_id bigint not null,
+    "user_id" bigint not null,
+    primary key (document_id, "user_id")
+);
+
+create table work_type (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+alter table "user"
+   add constraint FKnjg0a7pkhob6hy7kmic6g8d9p
+   foreign key (subscription_id)
+   references subscription;
+
+alter table complaint
+   add constraint FKdr6r8ygsrp7olsktix7w7nl2w
+   foreign key (deal_id)
+   references deal;
+
+alter table complaint
+   add constraint FKj6h3enxm603pcsg1bpw8ttmoq
+   foreign key (moderator_id)
+   references moderator;
+
+alter table complaint
+   add constraint FKgwlcljfka2s6bnsuiddqmg8jc
+   foreign key (plaintiff_id)
+   references "user";
+
+alter table deal
+   add constraint FKgt45a2lsdc346ili1khvck26u
+   foreign key (post_id)
+   references post;
+
+alter table deal
+   add constraint FKrpu49jral4wcjh06n6gfm8uwr
+   foreign key ("teacher_id")
+   references teacher;
+
+alter table document
+   add constraint FK2ox23agqjeagv6egkwyl06v9x
+   foreign key ("author_id")
+   references "user";
+
+alter table document_feedback
+   add constraint FKrbhjj0hslak3o00li8arcaffa
+   foreign key (document_id)
+   references document;
+
+alter table document_feedback
+   add constraint FKkr0ll8tgpu8kx6l3yk6ibttoc
+   foreign key ("user_id")
+   references "user";
+
+alter table document_complaint
+   add constraint FK43dm3haeqy98vc6025q3xlsnp
+   foreign key (document_id)
+   references document;
+
+alter table document_complaint
+   add constraint FKif3049tmhox75h1v29xntxvuq
+   foreign key (plaintiff_id)
+   references "user";
+
+alter table moderator
+   add constraint FK5qgoventfx23o0mekxgk2k5ti
+   foreign key ("id")
+   references "user";
+
+alter table post
+   add constraint FK2vylqamj9btxabm0nsvhaxlgq
+   foreign key (institution_id)
+   references institution;
+
+alter table post
+   add constraint FKca3ceikkva3wec2ioshfqy9ha
+   foreign key (student_id)
+   references student;
+
+alter table post
+   add constraint FKtqj4icumonitc3ttik6nyelj1
+   foreign key (subject_area_id)
+   references subject_area;
+
+alter table post
+   add constraint FKf920xstvvlr4gmxwe2ewf7gjq
+   foreign key (work_type_id)
+   references work_type;
+
+alter table post_error
+   add constraint FKnrt76r4edy84fng1l58699sxg
+   foreign key (post_id)
+   references post;
+
+alter table post_error
+   add constraint FKsn99annskecefl9wn45qx8rii
+   foreign key ("student_id")
+   references student;
+
+alter table response
+   add constraint FKg6inbhd415j6ilkygihv31y8q
+   foreign key (post_id)
+   references post;
+
+alter table response
+   add constraint FKp81k4p8pnu4ux91obesdaj60l
+   foreign key ("respondent_id")
+   references "user";
+
+alter table student
+   add constraint FKjwchh3n51d5avtd32c1lpowg8
+   foreign key ("id")
+   references "user";
+
+alter table teacher
+   add constraint FKqxwuvuvi7adirc7nkbbecnfpn
+   foreign key ("id")
+   references "user";
+
+alter table user_downloads
+   add constraint FK1fjj93bbewywod0qafrhs4j9r
+   foreign key (document_id)
+   references document;
+
+alter table user_downloads
+   add constraint FK18mlsiostngp2w16d9r0dbn5s
+   foreign key ("user_id")
+   references "user";
+
+alter table user_favorites
+   add constraint FKihpb7xavwss14h4f8c0qwp4c4
+   foreign key (document_id)
+   references document;
+
+alter table user_favorites
+   add constraint FK9mclvops0f6rtxlk4tii39tvh
+   foreign key ("user_id")
+   references "user";
@@ -0,0 +1,28 @@
+-- Before Flyway, ddl-auto=update created the @Index declarations of the entities: idx_document_uploaded_at
+-- (same definition as below) and idx_post_status_creation_date (replaced below). A database that ran that
+-- build already has them, so every index here is created with IF NOT EXISTS and dropped with IF EXISTS.
+
+-- Open-posts feed: status = 0 (OPEN) ordered by creation date or price, id breaking ties for keyset paging.
+-- Supersedes idx_post_status_creation_date.
+drop index if exists idx_post_status_creation_date;
+create index if not exists idx_post_open_creation_date on post (creation_date, id) where status = 0;
+create index if not exists idx_post_open_initial_price on post (initial_price, id) where status = 0;
+create index if not exists idx_post_student on post (student_id);
+
+-- Document filter and author listings, newest first.
+create index if not exists idx_document_uploaded_at on document (uploaded_at, id);
+create index if not exists idx_document_work_type_uploaded_at on document (work_type, uploaded_at, id);
+create index if not exists idx_document_subject_area_uploaded_at on document (subject_area, uploaded_at, id);
+create index if not exists idx_document_extension_uploaded_at on document (extension, uploaded_at, id);
+create index if not exists idx_document_author_uploaded_at on document (author_id, uploaded_at);
+
+-- Responses are read per post, per post and respondent (latest first) and per respondent.
+create index if not exists idx_response_post_respondent on response (post_id, respondent_id, creation_date);
+create index if not exists idx_response_respondent on response (respondent_id);
+
+create index if not exists idx_deal_teacher on deal (teacher_id);
+
+-- Moderator complaint queue. IS NULL is not an equality to the planner, so the unassigned queue cannot take
+-- its order from the moderator_id prefix and gets a partial index of its own.
+create index if not exists idx_complaint_moderator_creation_date on complaint (moderator_id, creation_date, id);
+create index if not exists idx_complaint_unassigned_creation_date on complaint (creation_date, id) where moderator_id is null;
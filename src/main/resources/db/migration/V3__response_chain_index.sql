@@ -0,0 +1,2 @@
+-- Recursive chain queries follow prev_response_id from a response to its successor.
+create index idx_response_prev_response on response (prev_response_id);
@@ -0,0 +1,79 @@
+create table negotiation_thread (
+    current_price numeric(38,2),
+    head_response_id bigint,
+    id bigint generated by default as identity,
+    last_student_response_id bigint,
+    last_teacher_response_id bigint,
+    post_id bigint not null,
+    teacher_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_negotiation_thread_post_teacher unique (post_id, teacher_id)
+);
+
+alter table negotiation_thread
+   add constraint fk_negotiation_thread_post
+   foreign key (post_id)
+   references post;
+
+alter table negotiation_thread
+   add constraint fk_negotiation_thread_teacher
+   foreign key (teacher_id)
+   references teacher;
+
+alter table response add column thread_id bigint;
+
+-- Every chain belongs to the teacher who opened it; chains opened by anyone else stay without a thread.
+create temporary table response_thread_owner on commit drop as
+with recursive chain as (
+    select id, post_id, respondent_id as teacher_id
+    from response
+    where prev_response_id is null
+  union all
+    select n.id, c.post_id, c.teacher_id
+    from response n
+    join chain c on n.prev_response_id = c.id
+)
+select chain.id, chain.post_id, chain.teacher_id
+from chain
+join teacher t on t.id = chain.teacher_id;
+
+insert into negotiation_thread (post_id, teacher_id)
+select distinct post_id, teacher_id from response_thread_owner;
+
+update response r
+set thread_id = t.id
+from response_thread_owner o
+join negotiation_thread t on t.post_id = o.post_id and t.teacher_id = o.teacher_id
+where r.id = o.id;
+
+alter table response
+   add constraint fk_response_thread
+   foreign key (thread_id)
+   references negotiation_thread;
+
+create index idx_response_thread on response (thread_id);
+
+update negotiation_thread t
+set head_response_id = h.id, current_price = h.price, updated_at = now()
+from (select distinct on (thread_id) thread_id, id, price
+      from response
+      where thread_id is not null
+      order by thread_id, creation_date desc, id desc) h
+where h.thread_id = t.id;
+
+update negotiation_thread t
+set last_teacher_response_id = l.id
+from (select distinct on (thread_id) thread_id, id
+      from response
+      where thread_id is not null and respondent_type = 'TEACHER'
+      order by thread_id, creation_date desc, id desc) l
+where l.thread_id = t.id;
+
+update negotiation_thread t
+set last_student_response_id = l.id
+from (select distinct on (thread_id) thread_id, id
+      from response
+      where thread_id is not null and respondent_type = 'STUDENT'
+      order by thread_id, creation_date desc, id desc) l
+where l.thread_id = t.id;
@@ -0,0 +1,2 @@
+-- Optimistic locking on the thread head; every change to a thread bumps it.
+alter table negotiation_thread add column version bigint not null default 0;
@@ -0,0 +1,16 @@
+alter table teacher add column rating_sum bigint not null default 0;
+alter table teacher add column rating_count integer not null default 0;
+
+update teacher t
+set rating_sum = f.total,
+    rating_count = f.rated,
+    rating = case when f.rated > 0 then cast(f.total as real) / f.rated else 0 end
+from (select o.id, coalesce(sum(d.student_feedback), 0) as total, count(d.id) as rated
+      from teacher o
+      left join deal d on d.teacher_id = o.id and d.student_feedback > 0
+      group by o.id) f
+where t.id = f.id;
+alter table teacher alter column rating set default 0;
+
+-- Leaderboard: rated teachers by rating, ties broken by id.
+create index idx_teacher_rating on teacher (rating desc, id);
@@ -0,0 +1,5 @@
+-- When the user last downloaded the document; rows from before this column are left without a date.
+alter table user_downloads add column downloaded_at timestamp(6);
+
+-- Patron daily limit: a user's downloads within the last day.
+create index idx_user_downloads_user_downloaded_at on user_downloads ("user_id", downloaded_at);
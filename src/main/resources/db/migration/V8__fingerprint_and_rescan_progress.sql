@@ -0,0 +1,15 @@
+-- Added to the entities while ddl-auto=update still managed the schema, so V1 does not have them.
+-- A database baselined at V1 lacks them; one created from those later entities already has them.
+alter table document add column if not exists term_count integer;
+alter table document add column if not exists min_hash_signature bytea;
+
+create table if not exists contact_rescan_progress (
+    finished boolean not null,
+    flagged bigint not null,
+    last_id bigint not null,
+    scanned bigint not null,
+    started_at timestamp(6),
+    updated_at timestamp(6),
+    target varchar(255) not null,
+    primary key (target)
+);
@@ -0,0 +1,195 @@
+package org.docpirates.ispi.repository;
+
+import org.docpirates.ispi.support.StatementRecorder;
+import org.docpirates.ispi.support.StatementRecorder.RecordedStatement;
+import org.docpirates.ispi.support.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the hot repository queries against a Flyway-built schema holding enough rows for the planner to
+ * prefer an index, then EXPLAINs the exact statements they sent, with the same bind values.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatementRecorder.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotQueryIndexTest {
+
+    private static final LocalDateTime CURSOR = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final long MODERATOR = 3_995;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired private StatementRecorder recorder;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PostRepository postRepository;
+    @Autowired private DocumentRepository documentRepository;
+    @Autowired private ComplaintRepository complaintRepository;
+    @Autowired private ResponseRepository responseRepository;
+
+    @BeforeAll
+    void seed() {
+        // Deals and threads are not needed by these queries, so foreign keys are not enforced while seeding.
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set session_replication_role = replica");
+                statement.execute("""
+                        insert into "user" (id, pib, email, password, phone_number, bank_card_number)
+                        select g, 'User ' || g, 'u' || g || '@test', 'x', '+380' || lpad(g::text, 9, '0'), lpad(g::text, 16, '0')
+                        from generate_series(1, 4000) g""");
+                statement.execute("insert into student (id) select g from generate_series(1, 2000) g");
+                statement.execute("insert into teacher (id) select g from generate_series(2001, 3990) g");
+                statement.execute("insert into moderator (id) select g from generate_series(3991, 4000) g");
+                statement.execute("insert into work_type (name) select 'Work type ' || g from generate_series(1, 10) g");
+                statement.execute("insert into institution (name) select 'Institution ' || g from generate_series(1, 50) g");
+                statement.execute("insert into subject_area (name) select 'Subject area ' || g from generate_series(1, 30) g");
+                statement.execute("""
+                        insert into post (initial_price, status, creation_date, institution_id, student_id,
+                                          subject_area_id, work_type_id, description)
+                        select 100 + g % 4900, case when g % 10 < 3 then 0 else 1 end,
+                               timestamp '2024-01-01' + g * interval '1 minute',
+                               1 + g % 50, 1 + g % 2000, 1 + g % 30, 1 + g % 10, 'Post ' || g
+                        from generate_series(1, 200000) g""");
+                statement.execute("""
+                        insert into document (author_id, uploaded_at, dtype, disk_path, extension, name,
+                                              subject_area, work_type)
+                        select 2001 + g % 1990, timestamp '2024-01-01' + g * interval '1 minute', 'Document',
+                               '/docs/' || g,
+                               case when g % 100 = 1 then 'djvu' else (array['pdf', 'docx', 'doc', 'pptx'])[1 + g % 4] end,
+                               'Document ' || g,
+                               case when g % 100 = 2 then 'Philosophy' else 'Subject area ' || (1 + g % 30) end,
+                               case when g % 100 = 3 then 'Thesis' else 'Work type ' || (1 + g % 10) end
+                        from generate_series(1, 200000) g""");
+                statement.execute("""
+                        insert into response (price, creation_date, post_id, prev_response_id, respondent_id,
+                                              respondent_type)
+                        select 100 + g % 4900, timestamp '2024-01-01' + g * interval '1 minute', 1 + g % 200000,
+                               case when g > 200000 then g - 200000 end, 2001 + g % 1990, 'TEACHER'
+                        from generate_series(1, 300000) g""");
+                statement.execute("""
+                        insert into complaint (creation_date, deal_id, moderator_id, plaintiff_id, description, status)
+                        select timestamp '2024-01-01' + g * interval '1 minute', g,
+                               case when g % 5 = 0 then null else 3991 + g % 10 end, 1 + g % 2000,
+                               'Complaint ' || g, 'NEW'
+                        from generate_series(1, 100000) g""");
+                statement.execute("set session_replication_role = origin");
+                statement.execute("analyze");
+            }
+            return null;
+        });
+    }
+
+    @Test
+    void openPostFeedUsesPartialIndexes() {
+        recorder.clear();
+        postRepository.findOpenPosts(null, null, null, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "creationDate", "id")));
+        assertThat(plan(0)).contains("using idx_post_open_creation_date");
+
+        recorder.clear();
+        postRepository.findOpenPosts(null, null, null, null, PageRequest.of(0, 20, Sort.by("initialPrice", "id")));
+        assertThat(plan(0)).contains("using idx_post_open_initial_price");
+
+        recorder.clear();
+        postRepository.findOpenPostsBefore(null, null, null, null, CURSOR, 10_000L, Limit.of(20));
+        assertThat(plan(0)).contains("using idx_post_open_creation_date");
+    }
+
+    @Test
+    void documentFilterUsesUploadedAtIndexes() {
+        recorder.clear();
+        documentRepository.findFiltered(null, null, null, PageRequest.of(0, 20));
+        assertThat(plan(0)).contains("using idx_document_uploaded_at");
+
+        recorder.clear();
+        documentRepository.findFilteredBefore(null, null, null, CURSOR, 10_000L, Limit.of(20));
+        assertThat(plan(0)).contains("using idx_document_uploaded_at");
+
+        // A common value is cheapest to filter while walking idx_document_uploaded_at; the composite
+        // indexes take over for the selective ones.
+        recorder.clear();
+        documentRepository.findFiltered("Work type 3", null, null, PageRequest.of(0, 20));
+        assertThat(plan(0)).contains("using idx_document_");
+
+        recorder.clear();
+        documentRepository.findFiltered("Thesis", null, null, PageRequest.of(0, 20));
+        assertThat(plan(0)).contains("using idx_document_work_type_uploaded_at");
+
+        recorder.clear();
+        documentRepository.findFiltered(null, "Philosophy", null, PageRequest.of(0, 20));
+        assertThat(plan(0)).contains("using idx_document_subject_area_uploaded_at");
+
+        recorder.clear();
+        documentRepository.findFilteredBefore(null, null, "djvu", CURSOR, 10_000L, Limit.of(20));
+        assertThat(plan(0)).contains("using idx_document_extension_uploaded_at");
+    }
+
+    @Test
+    void complaintQueueUsesModeratorIndex() {
+        recorder.clear();
+        complaintRepository.findQueuePage(MODERATOR, null, null, false, null, 20);
+        assertThat(plan(0)).contains("using idx_complaint_moderator_creation_date");
+
+        recorder.clear();
+        complaintRepository.findQueuePage(null, null, null, true, null, 20);
+        assertThat(plan(0)).contains("using idx_complaint_unassigned_creation_date");
+    }
+
+    @Test
+    void responseLookupsUseResponseIndexes() {
+        recorder.clear();
+        responseRepository.findChainsByPostId(1_234L);
+        assertThat(plan(0)).contains("using idx_response_post_respondent");
+
+        recorder.clear();
+        responseRepository.findChainsByParticipant(2_345L);
+        assertThat(plan(0)).contains("Index Scan on idx_response_respondent");
+    }
+
+    // EXPLAINs a recorded statement and fails on any sequential scan of a seeded table.
+    private String plan(int index) {
+        List<RecordedStatement> statements = recorder.statements();
+        assertThat(statements).hasSizeGreaterThan(index);
+        RecordedStatement recorded = statements.get(index);
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + recorded.sql())) {
+                recorded.bind(statement);
+                StringJoiner lines = new StringJoiner("\n");
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next())
+                        lines.add(rows.getString(1));
+                }
+                return lines.toString();
+            }
+        });
+        assertThat(plan)
+                .containsPattern("Index (Only )?Scan")
+                .doesNotContainPattern("Seq Scan on (post|document|complaint|response) ");
+        return plan;
+    }
+}
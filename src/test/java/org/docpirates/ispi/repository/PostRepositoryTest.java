@@ -0,0 +1,113 @@
+package org.docpirates.ispi.repository;
+
+import org.docpirates.ispi.dto.PostDto;
+import org.docpirates.ispi.entity.*;
+import org.docpirates.ispi.enums.PostStatus;
+import org.docpirates.ispi.support.StatementRecorder;
+import org.docpirates.ispi.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatementRecorder.class)
+class PostRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "creationDate")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired private StatementRecorder recorder;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private PostRepository postRepository;
+
+    @BeforeEach
+    void seed() {
+        // Every post gets its own student and lookup rows, so lazy loading them would cost one query per post.
+        for (int i = 0; i < 30; i++) {
+            Student student = entityManager.persist(Student.builder()
+                    .pib("Student " + i).email("student" + i + "@test").password("x")
+                    .phoneNumber("+38000000" + String.format("%04d", i))
+                    .bankCardNumber("40000000000" + String.format("%05d", i))
+                    .build());
+            entityManager.persist(Post.builder()
+                    .student(student)
+                    .workType(entityManager.persist(WorkType.builder().name("Work type " + i).build()))
+                    .institution(entityManager.persist(Institution.builder().name("Institution " + i).build()))
+                    .subjectArea(entityManager.persist(SubjectArea.builder().name("Subject area " + i).build()))
+                    .description("Post " + i)
+                    .initialPrice(BigDecimal.valueOf(100 + i))
+                    .creationDate(START.plusMinutes(i))
+                    .status(i % 3 == 0 ? PostStatus.CLOSED : PostStatus.OPEN)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        recorder.clear();
+    }
+
+    @Test
+    void openPostPageIsOneStatement() {
+        List<PostDto> page = postRepository.findOpenPosts(null, null, null, null, PageRequest.of(0, 10, NEWEST_FIRST));
+
+        assertThat(page).hasSize(10)
+                .allSatisfy(post -> {
+                    assertThat(post.getStatus()).isEqualTo("OPEN");
+                    assertThat(post.getStudentName()).startsWith("Student ");
+                    assertThat(post.getWorkType()).startsWith("Work type ");
+                    assertThat(post.getSubjectArea()).startsWith("Subject area ");
+                    assertThat(post.getInstitution()).startsWith("Institution ");
+                });
+        assertThat(page).extracting(PostDto::getCreationDate).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertSingleSelect();
+    }
+
+    @Test
+    void filteredOpenPostPageIsOneStatement() {
+        List<PostDto> page = postRepository.findOpenPosts("Institution 4", "Subject area 4",
+                BigDecimal.valueOf(100), BigDecimal.valueOf(200), PageRequest.of(0, 10, NEWEST_FIRST));
+
+        assertThat(page).singleElement().extracting(PostDto::getDescription).isEqualTo("Post 4");
+        assertSingleSelect();
+    }
+
+    @Test
+    void keysetContinuationIsOneStatement() {
+        List<PostDto> page = postRepository.findOpenPostsBefore(null, null, null, null,
+                START.plusMinutes(20), Long.MAX_VALUE, Limit.of(10));
+
+        assertThat(page).hasSize(10)
+                .allSatisfy(post -> assertThat(post.getCreationDate()).isBeforeOrEqualTo(START.plusMinutes(20)));
+        assertSingleSelect();
+    }
+
+    // One select for the page: no count query and no per-row loads of the joined associations.
+    private void assertSingleSelect() {
+        assertThat(recorder.statements())
+                .singleElement()
+                .satisfies(statement -> assertThat(statement.sql())
+                        .startsWith("select")
+                        .doesNotContain("count("));
+    }
+}
@@ -0,0 +1,95 @@
+package org.docpirates.ispi.service;
+
+import org.docpirates.ispi.enums.ContactInfoType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactInfoServiceTest {
+
+    // Pieces of keywords, domains, URLs and phone numbers mixed with ordinary text, separators and line terminators.
+    private static final String[] FRAGMENTS = {
+            "Привіт", "роботу", "курсова", "есе", "Essay", "hello", "THE", "ї", "є", "ґ", "і", "я", "a", "z",
+            "tele", "ТЕЛЕ", "гра", "грам", "ґрам", "t", "g", "T", "G", "inst", "Ін", "ст", "ні", "к", "нік",
+            "user", "name", "gmail", "mail", "ru", "i", "ua", "meta", "com", "net", "org", "me", "io", "gg", "COM",
+            "http", "https", "HTTP", "h", "s", ":", "/", "//", "://",
+            ".", ".", ".", ",", "!", "?", " ", " ", " ", "-", "(", ")", "+", "+38", "0", "5", "9", "050", "123",
+            "45", "67", "4567", "\n", "\r", "\r\n", "\u0085", " ", "\t", "@", "_"
+    };
+
+    @Test
+    void agreesWithLegacyRulesOnRandomText() {
+        Random random = new Random(20240501);
+        List<String> mismatches = new ArrayList<>();
+        int flagged = 0;
+        int samples = 200_000;
+        for (int i = 0; i < samples && mismatches.size() < 10; i++) {
+            StringBuilder text = new StringBuilder();
+            int fragments = 1 + random.nextInt(12);
+            for (int j = 0; j < fragments; j++)
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            String sample = text.toString();
+            boolean expected = LegacyContactInfo.containsContactInfo(sample);
+            if (expected)
+                flagged++;
+            if (ContactInfoService.containsContactInfo(sample) != expected)
+                mismatches.add(sample);
+        }
+        assertThat(mismatches).isEmpty();
+        assertThat(flagged).as("flagged samples").isBetween(samples / 10, samples - samples / 10);
+    }
+
+    @Test
+    void keywordsSurviveCaseAndSeparators() {
+        assertDetected("Пишіть у ТЕЛЕГРАМ", ContactInfoType.KEYWORD);
+        assertDetected("мій t.g: petro", ContactInfoType.KEYWORD);
+        assertDetected("ін-ст\nабо\nвайбер", ContactInfoType.KEYWORD);
+    }
+
+    @Test
+    void separatorRulesOnlyFireOnSingleLineText() {
+        assertDetected("Дзвоніть +380 (50) 123-45-67", ContactInfoType.PHONE);
+        assertDetected("Дзвоніть\n+380 (50) 123-45-67", null);
+        assertDetected("see https://example", ContactInfoType.URL);
+        assertDetected("see\r\nhttps://example", null);
+        assertDetected("write https://example", null);
+        assertDetected("site example.net here", ContactInfoType.DOMAIN);
+        assertDetected("first line\nexample.net", null);
+    }
+
+    @Test
+    void domainDirectlyBeforeTheOnlyLineTerminatorStillMatches() {
+        assertDetected("example.com\nsecond line", ContactInfoType.DOMAIN);
+        assertDetected("example.com\u0085", ContactInfoType.DOMAIN);
+        assertDetected("example.com\nsecond\nthird", null);
+        assertDetected("example.com \nsecond line", null);
+    }
+
+    @Test
+    void droppedRulesNeverMatchedOnTheirOwn() {
+        // Dotted keywords were compared against text with the dots stripped.
+        assertDetected("mail.ru", null);
+        assertDetected("mail.ru\nlater", null);
+        assertDetected("box on i.ua\nsecond\nthird", null);
+        assertDetected("meta.ua\nsecond\nthird", null);
+        // The e-mail pattern always needed an @.
+        assertDetected("petro @ example . com", ContactInfoType.SPECIAL_CHARACTER);
+        assertDetected("petro\n@\nexample\n.\ncom", ContactInfoType.SPECIAL_CHARACTER);
+    }
+
+    @Test
+    void ordinaryTextIsClean() {
+        assertDetected("Потрібна курсова з історії України, 30 сторінок", null);
+        assertDetected("Essay on Kyiv history, due 12.05", null);
+        assertDetected(null, null);
+    }
+
+    private static void assertDetected(String text, ContactInfoType expected) {
+        assertThat(ContactInfoService.findContactInfo(text)).as(String.valueOf(text)).isEqualTo(expected);
+        assertThat(LegacyContactInfo.containsContactInfo(text)).as(String.valueOf(text)).isEqualTo(expected != null);
+    }
+}
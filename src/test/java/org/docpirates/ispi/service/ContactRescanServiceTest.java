@@ -0,0 +1,145 @@
+package org.docpirates.ispi.service;
+
+import org.docpirates.ispi.entity.*;
+import org.docpirates.ispi.enums.ContactErrorStatus;
+import org.docpirates.ispi.enums.PostStatus;
+import org.docpirates.ispi.repository.*;
+import org.docpirates.ispi.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"ispi.rescan.batch-size=2", "ispi.rescan.duty-cycle=1"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ContactRescanService.class)
+class ContactRescanServiceTest {
+
+    private static final String CONTACT = "Write to me at +380501234567 for the details";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired private ContactRescanService contactRescanService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private PostErrorRepository postErrorRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private WorkTypeRepository workTypeRepository;
+    @Autowired private InstitutionRepository institutionRepository;
+    @Autowired private SubjectAreaRepository subjectAreaRepository;
+
+    private Student student;
+    private WorkType workType;
+    private Institution institution;
+    private SubjectArea subjectArea;
+
+    @BeforeEach
+    void seed() {
+        postErrorRepository.deleteAll();
+        postRepository.deleteAll();
+        studentRepository.deleteAll();
+        workTypeRepository.deleteAll();
+        institutionRepository.deleteAll();
+        subjectAreaRepository.deleteAll();
+        student = studentRepository.save(Student.builder()
+                .pib("Test Student").email("student@test").password("x")
+                .phoneNumber("+380000000001").bankCardNumber("4000000000000001")
+                .build());
+        workType = workTypeRepository.save(WorkType.builder().name("Essay").build());
+        institution = institutionRepository.save(Institution.builder().name("KNU").build());
+        subjectArea = subjectAreaRepository.save(SubjectArea.builder().name("History").build());
+    }
+
+    @Test
+    void restartReopensDeniedErrorInsteadOfInsertingSecondOne() throws InterruptedException {
+        Post flagged = post(CONTACT);
+        PostError denied = postErrorRepository.save(error(flagged, ContactErrorStatus.DENIED));
+        Post clean = post("An essay on the history of Kyiv");
+        Post later = post(CONTACT);
+
+        rescan();
+
+        assertThat(postProgress().isFinished()).isTrue();
+        List<PostError> errors = postErrorRepository.findByPostIdIn(
+                List.of(flagged.getId(), clean.getId(), later.getId()));
+        assertThat(errors).hasSize(2);
+        assertThat(errors).filteredOn(error -> error.getPost().getId().equals(flagged.getId()))
+                .singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getId()).isEqualTo(denied.getId());
+                    assertThat(error.getContactErrorStatus()).isEqualTo(ContactErrorStatus.REVIEW);
+                });
+        assertThat(errors).filteredOn(error -> error.getPost().getId().equals(later.getId()))
+                .singleElement()
+                .extracting(PostError::getContactErrorStatus)
+                .isEqualTo(ContactErrorStatus.REVIEW);
+    }
+
+    @Test
+    void restartLeavesErrorsUnderReviewAlone() throws InterruptedException {
+        Post flagged = post(CONTACT);
+        PostError open = postErrorRepository.save(error(flagged, ContactErrorStatus.REVIEW));
+
+        rescan();
+
+        assertThat(postProgress().isFinished()).isTrue();
+        assertThat(postProgress().getFlagged()).isZero();
+        assertThat(postErrorRepository.findByPostIdIn(List.of(flagged.getId())))
+                .singleElement()
+                .extracting(PostError::getId)
+                .isEqualTo(open.getId());
+    }
+
+    private void rescan() throws InterruptedException {
+        assertThat(contactRescanService.start(true)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (contactRescanService.status().running() && System.nanoTime() < deadline)
+            TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(contactRescanService.status().running()).isFalse();
+    }
+
+    private ContactRescanProgress postProgress() {
+        return contactRescanService.status().progress().stream()
+                .filter(progress -> progress.getTarget().equals(ContactRescanService.POSTS))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Post post(String description) {
+        return postRepository.save(Post.builder()
+                .workType(workType)
+                .institution(institution)
+                .subjectArea(subjectArea)
+                .description(description)
+                .initialPrice(BigDecimal.TEN)
+                .status(PostStatus.OPEN)
+                .student(student)
+                .build());
+    }
+
+    private PostError error(Post post, ContactErrorStatus status) {
+        return PostError.builder()
+                .description("Sensitive data found in post description.")
+                .postDescription(post.getDescription())
+                .post(post)
+                .student(student)
+                .existingPost(true)
+                .contactErrorStatus(status)
+                .build();
+    }
+}
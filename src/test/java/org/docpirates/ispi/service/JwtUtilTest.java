@@ -0,0 +1,84 @@
+package org.docpirates.ispi.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    // The key JwtUtil signs with, to build tokens it should accept apart from their expiry.
+    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor("my-secret-key-my-secret-key-my-secret".getBytes());
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    void parseReturnsSubjectAndExpiry() {
+        Instant before = Instant.now();
+        String token = jwtUtil.generateToken("student@test");
+
+        JwtUtil.ParsedToken parsed = jwtUtil.parse(token);
+
+        assertThat(parsed.subject()).isEqualTo("student@test");
+        // The expiry claim is kept in whole seconds.
+        assertThat(parsed.expiresAt())
+                .isAfter(before.plus(Duration.ofDays(1)).minusSeconds(1))
+                .isBeforeOrEqualTo(Instant.now().plus(Duration.ofDays(1)));
+        assertThat(jwtUtil.extractUsername(token)).isEqualTo("student@test");
+        assertThat(jwtUtil.validateToken(token)).isTrue();
+    }
+
+    @Test
+    void parseRejectsExpiredToken() {
+        String token = Jwts.builder()
+                .setSubject("student@test")
+                .setIssuedAt(Date.from(Instant.now().minus(Duration.ofDays(2))))
+                .setExpiration(Date.from(Instant.now().minus(Duration.ofDays(1))))
+                .signWith(SIGNING_KEY, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtil.parse(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtUtil.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void parseRejectsTokenSignedWithAnotherKey() {
+        String token = Jwts.builder()
+                .setSubject("student@test")
+                .setExpiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .signWith(Keys.hmacShaKeyFor("another-secret-another-secret-another".getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtil.parse(token)).isInstanceOf(SignatureException.class);
+        assertThat(jwtUtil.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void parseRejectsTokenWithAlteredClaims() {
+        String[] parts = jwtUtil.generateToken("student@test").split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1])).replace("student@test", "moderator@test");
+        String token = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(claims.getBytes()) + "." + parts[2];
+
+        assertThatThrownBy(() -> jwtUtil.parse(token)).isInstanceOf(SignatureException.class);
+        assertThat(jwtUtil.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void parseRejectsMalformedToken() {
+        assertThatThrownBy(() -> jwtUtil.parse("not-a-token")).isInstanceOf(MalformedJwtException.class);
+        assertThatThrownBy(() -> jwtUtil.parse("a.b.c")).isInstanceOf(MalformedJwtException.class);
+        assertThat(jwtUtil.validateToken("not-a-token")).isFalse();
+    }
+}
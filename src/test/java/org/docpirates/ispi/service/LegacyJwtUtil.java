@@ -0,0 +1,42 @@
+package org.docpirates.ispi.service;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.security.Key;
+
+/**
+ * Token verification as JwtUtil did it before the key and parser were cached, kept as the benchmark baseline.
+ */
+public final class LegacyJwtUtil {
+    private static final String SECRET = "my-secret-key-my-secret-key-my-secret";
+
+    private LegacyJwtUtil() {
+    }
+
+    private static Key getSigningKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    }
+
+    public static String extractUsername(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    public static boolean validateToken(String token) {
+        try {
+            Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token);
+            return true;
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+}
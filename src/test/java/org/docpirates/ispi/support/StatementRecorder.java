@@ -0,0 +1,59 @@
+package org.docpirates.ispi.support;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps the application DataSource and records every statement sent through it, with its bind values.
+ * Import it into a test context and autowire it.
+ */
+public class StatementRecorder implements BeanPostProcessor {
+
+    private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource)
+            return bean;
+        return ProxyDataSourceBuilder.create(dataSource)
+                .afterQuery((execution, queries) -> queries.forEach(query -> statements.add(new RecordedStatement(
+                        query.getQuery(),
+                        query.getParametersList().isEmpty() ? List.of() : List.copyOf(query.getParametersList().get(0))))))
+                .build();
+    }
+
+    public void clear() {
+        statements.clear();
+    }
+
+    public List<RecordedStatement> statements() {
+        return List.copyOf(statements);
+    }
+
+    public record RecordedStatement(String sql, List<ParameterSetOperation> parameters) {
+
+        // Replays the recorded setXxx calls, so the statement can be re-run with the same values.
+        public void bind(PreparedStatement statement) throws SQLException {
+            for (ParameterSetOperation parameter : parameters) {
+                try {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof SQLException sqlException)
+                        throw sqlException;
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+    }
+}